@@ -54,6 +54,8 @@ CREATE TABLE products (
     stock INT NOT NULL DEFAULT 0,
     featured BOOL NOT NULL DEFAULT 0,
     PRIMARY KEY (product_id),
+    INDEX idx_products_category_price (category_id, price),
+    INDEX idx_products_subcategory_price (subcategory, price),
     FOREIGN KEY (category_id) REFERENCES categories(category_id)
 );
 
@@ -0,0 +1,3 @@
+-- Every login and registration looks a user up by name (MySqlUserDao.getByUserName
+-- and exists). Unique, since the registration endpoint already refuses duplicates.
+CREATE UNIQUE INDEX ux_users_username ON users (username);
@@ -0,0 +1,3 @@
+-- Product searches with only a price range have no category or subcategory to lead
+-- the composite search indexes with.
+CREATE INDEX idx_products_price ON products (price);
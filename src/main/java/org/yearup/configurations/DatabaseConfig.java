@@ -1,31 +1,208 @@
 package org.yearup.configurations;
 
-import org.apache.commons.dbcp2.BasicDataSource;
-import org.springframework.beans.factory.annotation.Autowired;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.yearup.data.leak.LeakDetectingDataSource;
+import org.yearup.data.routing.ReadWriteRoutingDataSource;
+import org.yearup.data.timing.StatementStatistics;
+import org.yearup.data.timing.TimingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
+@Profile("!memory")
 public class DatabaseConfig
 {
-    private BasicDataSource basicDataSource;
+    private static final Logger LOG = LoggerFactory.getLogger(DatabaseConfig.class);
+
+    @Value("${datasource.pool.initial-size:0}")
+    private int initialSize;
+    @Value("${datasource.pool.max-total:20}")
+    private int maxTotal;
+    @Value("${datasource.pool.max-idle:20}")
+    private int maxIdle;
+    @Value("${datasource.pool.min-idle:5}")
+    private int minIdle;
+    @Value("${datasource.pool.max-wait-ms:2000}")
+    private long maxWaitMillis;
+
+    // an empty validation query makes DBCP use Connection.isValid(), which Connector/J answers with a ping
+    @Value("${datasource.pool.validation-query:}")
+    private String validationQuery;
+    @Value("${datasource.pool.validation-timeout-seconds:2}")
+    private int validationTimeoutSeconds;
+    @Value("${datasource.pool.test-on-borrow:true}")
+    private boolean testOnBorrow;
+    @Value("${datasource.pool.test-while-idle:true}")
+    private boolean testWhileIdle;
+
+    @Value("${datasource.pool.eviction-interval-ms:30000}")
+    private long evictionIntervalMillis;
+    @Value("${datasource.pool.min-evictable-idle-ms:60000}")
+    private long minEvictableIdleMillis;
+    @Value("${datasource.pool.tests-per-eviction-run:3}")
+    private int testsPerEvictionRun;
+
+    @Value("${datasource.pool.prepared-statements:true}")
+    private boolean poolPreparedStatements;
+    @Value("${datasource.pool.max-open-prepared-statements:100}")
+    private int maxOpenPreparedStatements;
+
+    @Value("${datasource.pool.warm-up:false}")
+    private boolean warmUp;
+
+    // comma separated replica urls; reads stay on the primary when there are none
+    @Value("${datasource.replica.urls:}")
+    private List<String> replicaUrls;
+    @Value("${datasource.replica.read-your-writes-ms:5000}")
+    private long readYourWritesMillis;
+    @Value("${datasource.replica.cooldown-ms:10000}")
+    private long replicaCooldownMillis;
+    // keep it under read-your-writes-ms, or a user can read from a replica that hasn't seen their write
+    @Value("${datasource.replica.max-lag-ms:3000}")
+    private long replicaMaxLagMillis;
+
+    // proxies every connection, statement and result set, so turn it on when looking for slow statements
+    @Value("${datasource.timing.enabled:false}")
+    private boolean timingEnabled;
+
+    // off, log or fail; tracks every statement and result set, so leave it off in production
+    @Value("${datasource.leak-detection:off}")
+    private String leakDetection;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final StatementStatistics statementStatistics;
+    private final List<MeterBinder> metrics = new ArrayList<>();
+
+    public DatabaseConfig(@Value("${datasource.url}") String url,
+                          @Value("${datasource.username}") String username,
+                          @Value("${datasource.password}") String password,
+                          StatementStatistics statementStatistics)
+    {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.statementStatistics = statementStatistics;
+    }
 
     @Bean
-    public BasicDataSource dataSource()
+    public DataSource dataSource()
     {
-        return basicDataSource;
+        DataSource primary = wrapped(pool("primary", url));
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (String replicaUrl : replicaUrls)
+        {
+            if (!replicaUrl.isBlank())
+                replicas.add(wrapped(pool("replica-" + replicas.size(), replicaUrl.trim())));
+        }
+        if (replicas.isEmpty())
+            return primary;
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replicas,
+                Duration.ofMillis(readYourWritesMillis),
+                Duration.ofMillis(replicaCooldownMillis),
+                Duration.ofMillis(replicaMaxLagMillis),
+                DatabaseConfig::currentUserName);
+        metrics.add(registry -> Gauge.builder("db.replicas.healthy", routing, ReadWriteRoutingDataSource::getHealthyReplicaCount)
+                .description("Replicas currently accepting reads")
+                .register(registry));
+        return routing;
     }
 
-    @Autowired
-    public DatabaseConfig(@Value("${datasource.url}") String url,
-                          @Value("${datasource.username}") String username,
-                          @Value("${datasource.password}") String password)
+    /**
+     * Publishes the pool and replica metrics. They are bound by Boot once the registry is up
+     * rather than handed the registry while the pools are built: Boot's own DataSource metrics
+     * make the registry depend on the DataSource, so the reverse dependency would be a cycle.
+     */
+    @Bean
+    public MeterBinder dataSourceMetrics(DataSource dataSource)
     {
-        basicDataSource = new BasicDataSource();
-        basicDataSource.setUrl(url);
-        basicDataSource.setUsername(username);
-        basicDataSource.setPassword(password);
+        return registry -> metrics.forEach(binder -> binder.bindTo(registry));
     }
 
-}
\ No newline at end of file
+    private DataSource wrapped(DataSource pool)
+    {
+        DataSource dataSource = pool;
+        if (!leakDetection.equalsIgnoreCase("off"))
+            dataSource = new LeakDetectingDataSource(dataSource, LeakDetectingDataSource.Mode.valueOf(leakDetection.toUpperCase()));
+        if (timingEnabled)
+            dataSource = new TimingDataSource(dataSource, statementStatistics);
+
+        return dataSource;
+    }
+
+    private InstrumentedDataSource pool(String name, String url)
+    {
+        InstrumentedDataSource dataSource = new InstrumentedDataSource(name);
+        metrics.add(dataSource);
+        dataSource.setUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+
+        // let Connector/J send a JDBC batch as one multi-row INSERT instead of one round trip per row
+        dataSource.addConnectionProperty("rewriteBatchedStatements", "true");
+
+        dataSource.setInitialSize(initialSize);
+        dataSource.setMaxTotal(maxTotal);
+        dataSource.setMaxIdle(maxIdle);
+        dataSource.setMinIdle(minIdle);
+        dataSource.setMaxWaitMillis(maxWaitMillis);
+
+        dataSource.setValidationQuery(validationQuery.isBlank() ? null : validationQuery);
+        dataSource.setValidationQueryTimeout(validationTimeoutSeconds);
+        dataSource.setTestOnBorrow(testOnBorrow);
+        dataSource.setTestWhileIdle(testWhileIdle);
+
+        dataSource.setTimeBetweenEvictionRunsMillis(evictionIntervalMillis);
+        dataSource.setMinEvictableIdleTimeMillis(minEvictableIdleMillis);
+        dataSource.setNumTestsPerEvictionRun(testsPerEvictionRun);
+
+        dataSource.setPoolPreparedStatements(poolPreparedStatements);
+        dataSource.setMaxOpenPreparedStatements(maxOpenPreparedStatements);
+
+        if (warmUp)
+            warmUp(name, dataSource);
+
+        return dataSource;
+    }
+
+    private static String currentUserName()
+    {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken)
+            return null;
+
+        return authentication.getName();
+    }
+
+    private static void warmUp(String name, InstrumentedDataSource dataSource)
+    {
+        long start = System.nanoTime();
+        try
+        {
+            int opened = dataSource.warmUp();
+            LOG.info("Opened {} {} connections in {} ms", opened, name, (System.nanoTime() - start) / 1_000_000);
+        }
+        catch (SQLException e)
+        {
+            // the pool still opens connections on demand, so a failed warm-up only costs the first requests
+            LOG.warn("Warm-up of the {} pool failed: {}", name, e.getMessage());
+        }
+    }
+}
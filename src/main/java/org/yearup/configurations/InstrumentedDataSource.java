@@ -0,0 +1,204 @@
+package org.yearup.configurations;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.dbcp2.DelegatingConnection;
+import org.apache.commons.dbcp2.PoolableConnection;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.yearup.data.Deadline;
+import org.yearup.data.DeadlineExceededException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A DBCP pool that publishes its state as metrics: active, idle, max and waiting connections
+ * as gauges, and the time each getConnection() call spends waiting for a connection as a timer.
+ * Comparing db.pool.borrow with the query timings tells pool waits apart from MySQL time.
+ * Nothing is published until the pool is bound to a registry.
+ */
+public class InstrumentedDataSource extends BasicDataSource implements MeterBinder
+{
+    private final String poolName;
+    private volatile Timer borrowTimer;
+
+    /**
+     * @param poolName the value of the pool tag on every metric, e.g. primary or replica-0
+     */
+    public InstrumentedDataSource(String poolName)
+    {
+        this.poolName = poolName;
+    }
+
+    /**
+     * @param meterRegistry where to publish the pool metrics
+     * @param poolName the value of the pool tag on every metric, e.g. primary or replica-0
+     */
+    public InstrumentedDataSource(MeterRegistry meterRegistry, String poolName)
+    {
+        this(poolName);
+        bindTo(meterRegistry);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry)
+    {
+        borrowTimer = Timer.builder("db.pool.borrow")
+                .description("Time spent waiting for a pooled connection")
+                .tag("pool", poolName)
+                .register(meterRegistry);
+
+        gauge(meterRegistry, "db.pool.active", "Connections checked out of the pool", BasicDataSource::getNumActive);
+        gauge(meterRegistry, "db.pool.idle", "Connections idle in the pool", BasicDataSource::getNumIdle);
+        gauge(meterRegistry, "db.pool.max", "Maximum connections the pool will open", BasicDataSource::getMaxTotal);
+        gauge(meterRegistry, "db.pool.waiting", "Threads blocked waiting for a connection", InstrumentedDataSource::getNumWaiters);
+    }
+
+    /**
+     * Borrows a connection. While a request deadline is running, the wait is capped at the
+     * time left before it rather than the pool's max wait.
+     */
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        long start = System.nanoTime();
+        try
+        {
+            Duration remaining = Deadline.remaining();
+            GenericObjectPool<PoolableConnection> pool = getConnectionPool();
+            long maxWaitMillis = getMaxWaitMillis();
+            if (remaining == null || pool == null || (maxWaitMillis >= 0 && remaining.toMillis() >= maxWaitMillis))
+                return super.getConnection();
+
+            return borrowBefore(pool, remaining);
+        }
+        finally
+        {
+            Timer timer = borrowTimer;
+            if (timer != null)
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Borrows straight from the pool with a shorter wait, wrapped in a {@link PoolGuard} the
+     * way PoolingDataSource wraps what it hands out.
+     */
+    private Connection borrowBefore(GenericObjectPool<PoolableConnection> pool, Duration remaining) throws SQLException
+    {
+        Deadline.check();
+        try
+        {
+            return new PoolGuard(pool.borrowObject(remaining), isAccessToUnderlyingConnectionAllowed());
+        }
+        catch (NoSuchElementException e)
+        {
+            throw new DeadlineExceededException("Request deadline passed while waiting for a connection from the " + poolName + " pool");
+        }
+        catch (SQLException | RuntimeException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new SQLException("Cannot get a connection from the " + poolName + " pool", e);
+        }
+    }
+
+    /**
+     * @return the number of threads currently blocked waiting for a connection
+     */
+    public int getNumWaiters()
+    {
+        GenericObjectPool<PoolableConnection> pool = getConnectionPool();
+        return pool == null ? 0 : pool.getNumWaiters();
+    }
+
+    /**
+     * Opens minIdle connections up front so the first requests after startup
+     * don't pay for the TCP and authentication handshakes.
+     * @return the number of connections opened
+     * @throws SQLException if a connection can't be opened
+     */
+    public int warmUp() throws SQLException
+    {
+        List<Connection> connections = new ArrayList<>();
+        try
+        {
+            for (int i = 0; i < getMinIdle(); i++)
+            {
+                connections.add(super.getConnection());
+            }
+            return connections.size();
+        }
+        finally
+        {
+            for (Connection connection : connections)
+            {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * What the caller holds instead of the pooled connection itself. Once closed it lets go
+     * of the pooled connection, so a second close can't return it to the pool again while
+     * another thread is using it, and the pooled connection is only reachable through
+     * getDelegate() when accessToUnderlyingConnectionAllowed is set.
+     */
+    static final class PoolGuard extends DelegatingConnection<Connection>
+    {
+        private final boolean accessToUnderlyingConnectionAllowed;
+
+        PoolGuard(Connection delegate, boolean accessToUnderlyingConnectionAllowed)
+        {
+            super(delegate);
+            this.accessToUnderlyingConnectionAllowed = accessToUnderlyingConnectionAllowed;
+        }
+
+        @Override
+        public void close() throws SQLException
+        {
+            if (getDelegateInternal() != null)
+            {
+                super.close();
+                super.setDelegate(null);
+            }
+        }
+
+        @Override
+        public boolean isClosed() throws SQLException
+        {
+            return getDelegateInternal() == null || super.isClosed();
+        }
+
+        @Override
+        public Connection getDelegate()
+        {
+            return accessToUnderlyingConnectionAllowed ? super.getDelegate() : null;
+        }
+
+        @Override
+        public Connection getInnermostDelegate()
+        {
+            return accessToUnderlyingConnectionAllowed ? super.getInnermostDelegate() : null;
+        }
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String name, String description, ToDoubleFunction<InstrumentedDataSource> value)
+    {
+        Gauge.builder(name, this, value)
+                .description(description)
+                .tag("pool", poolName)
+                .register(meterRegistry);
+    }
+}
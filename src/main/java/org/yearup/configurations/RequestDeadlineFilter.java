@@ -0,0 +1,76 @@
+package org.yearup.configurations;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.yearup.data.Deadline;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Starts a {@link Deadline} for every request. Catalog reads (GET /products and
+ * /categories) get the catalog budget, except product exports (?stream=true or an NDJSON
+ * Accept header), which get the export budget. Everything else, including cart and
+ * checkout, gets the checkout budget.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestDeadlineFilter extends OncePerRequestFilter
+{
+    private static final List<String> CATALOG_PATHS = List.of("/products", "/categories");
+    private static final String EXPORT_PATH = "/products";
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final Duration catalogBudget;
+    private final Duration checkoutBudget;
+    private final Duration exportBudget;
+
+    public RequestDeadlineFilter(@Value("${request.deadline.catalog-ms:2000}") long catalogMillis,
+                                 @Value("${request.deadline.checkout-ms:5000}") long checkoutMillis,
+                                 @Value("${request.deadline.export-ms:30000}") long exportMillis)
+    {
+        this.catalogBudget = Duration.ofMillis(catalogMillis);
+        this.checkoutBudget = Duration.ofMillis(checkoutMillis);
+        this.exportBudget = Duration.ofMillis(exportMillis);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException
+    {
+        try (Deadline.Scope ignored = Deadline.start(budget(request)))
+        {
+            chain.doFilter(request, response);
+        }
+    }
+
+    Duration budget(HttpServletRequest request)
+    {
+        if ("GET".equals(request.getMethod()))
+        {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            if (path.equals(EXPORT_PATH) && isExport(request))
+                return exportBudget;
+
+            for (String catalogPath : CATALOG_PATHS)
+            {
+                if (path.equals(catalogPath) || path.startsWith(catalogPath + "/"))
+                    return catalogBudget;
+            }
+        }
+        return checkoutBudget;
+    }
+
+    private static boolean isExport(HttpServletRequest request)
+    {
+        String accept = request.getHeader("Accept");
+        return Boolean.parseBoolean(request.getParameter("stream")) || (accept != null && accept.contains(NDJSON));
+    }
+}
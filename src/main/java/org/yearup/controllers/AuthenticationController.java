@@ -10,11 +10,13 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import org.yearup.models.Profile;
 import org.yearup.data.ProfileDao;
+import org.yearup.data.UnitOfWork;
 import org.yearup.data.UserDao;
 import org.yearup.models.authentication.LoginDto;
 import org.yearup.models.authentication.LoginResponseDto;
@@ -32,12 +34,16 @@ public class AuthenticationController {
     private final AuthenticationManagerBuilder authenticationManagerBuilder;
     private UserDao userDao;
     private ProfileDao profileDao;
+    private UnitOfWork unitOfWork;
+    private PasswordEncoder passwordEncoder;
 
-    public AuthenticationController(TokenProvider tokenProvider, AuthenticationManagerBuilder authenticationManagerBuilder, UserDao userDao, ProfileDao profileDao) {
+    public AuthenticationController(TokenProvider tokenProvider, AuthenticationManagerBuilder authenticationManagerBuilder, UserDao userDao, ProfileDao profileDao, UnitOfWork unitOfWork, PasswordEncoder passwordEncoder) {
         this.tokenProvider = tokenProvider;
         this.authenticationManagerBuilder = authenticationManagerBuilder;
         this.userDao = userDao;
         this.profileDao = profileDao;
+        this.unitOfWork = unitOfWork;
+        this.passwordEncoder = passwordEncoder;
     }
 
     @RequestMapping(value = "/login", method = RequestMethod.POST)
@@ -62,7 +68,7 @@ public class AuthenticationController {
         }
         catch(Exception ex)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(ex);
         }
     }
 
@@ -72,25 +78,36 @@ public class AuthenticationController {
 
         try
         {
-            boolean exists = userDao.exists(newUser.getUsername());
-            if (exists)
-            {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User Already Exists.");
-            }
+            // hash first: it can queue for a BCrypt thread, and must not do that holding a connection
+            String hashedPassword = passwordEncoder.encode(newUser.getPassword());
 
-            // create user
-            User user = userDao.create(new User(0, newUser.getUsername(), newUser.getPassword(), newUser.getRole()));
+            User user = unitOfWork.execute(() -> {
+                boolean exists = userDao.exists(newUser.getUsername());
+                if (exists)
+                {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User Already Exists.");
+                }
 
-            // create profile
-            Profile profile = new Profile();
-            profile.setUserId(user.getId());
-            profileDao.create(profile);
+                // create user
+                User created = userDao.createHashed(new User(0, newUser.getUsername(), hashedPassword, newUser.getRole()));
+
+                // create profile
+                Profile profile = new Profile();
+                profile.setUserId(created.getId());
+                profileDao.create(profile);
+
+                return created;
+            });
 
             return new ResponseEntity<>(user, HttpStatus.CREATED);
         }
+        catch (ResponseStatusException e)
+        {
+            throw e;
+        }
         catch (Exception e)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(e);
         }
     }
 
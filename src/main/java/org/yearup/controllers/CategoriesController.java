@@ -1,6 +1,8 @@
 package org.yearup.controllers;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -13,16 +15,19 @@ import java.util.List;
 
 @RestController
 @RequestMapping("categories")
-@CrossOrigin
+@CrossOrigin(exposedHeaders = ProductPages.NEXT_CURSOR_HEADER)
 public class CategoriesController
 {
     private CategoryDao categoryDao;
     private ProductDao productDao;
+    private int maxPageSize;
 
-    public CategoriesController(CategoryDao categoryDao, ProductDao productDao)
+    public CategoriesController(CategoryDao categoryDao, ProductDao productDao,
+                                @Value("${products.page.max-size:100}") int maxPageSize)
     {
         this.categoryDao = categoryDao;
         this.productDao = productDao;
+        this.maxPageSize = maxPageSize;
     }
 
     /**
@@ -38,7 +43,7 @@ public class CategoriesController
         }
         catch(Exception e)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(e);
         }
     }
 
@@ -63,25 +68,31 @@ public class CategoriesController
         }
         catch(Exception e)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(e);
         }
     }
 
     /**
-     * Gets all products in a category.
+     * Gets the products in a category, one page at a time.
      * @param categoryId the category id
-     * @return list of products
+     * @param limit page size, capped at products.page.max-size
+     * @param after the X-Next-Cursor value from the previous page
+     * @return a page of products, with X-Next-Cursor set when more follow
      */
     @GetMapping("{categoryId}/products")
-    public List<Product> getProductsById(@PathVariable int categoryId)
+    public ResponseEntity<List<Product>> getProductsById(@PathVariable int categoryId,
+                                                         @RequestParam(name="limit", required = false) Integer limit,
+                                                         @RequestParam(name="after", required = false) Integer after)
     {
+        int pageSize = ProductPages.pageSize(limit, maxPageSize);
         try
         {
-            return productDao.listByCategoryId(categoryId);
+            var products = productDao.listByCategoryId(categoryId, after, pageSize + 1);
+            return ProductPages.toResponse(products, pageSize);
         }
         catch(Exception e)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(e);
         }
     }
 
@@ -101,7 +112,7 @@ public class CategoriesController
         }
         catch(Exception e)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(e);
         }
     }
 
@@ -120,7 +131,7 @@ public class CategoriesController
         }
         catch(Exception e)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(e);
         }
     }
 
@@ -139,7 +150,7 @@ public class CategoriesController
         }
         catch(Exception e)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(e);
         }
     }
 }
@@ -0,0 +1,31 @@
+package org.yearup.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.yearup.data.DeadlineExceededException;
+
+import java.sql.SQLTimeoutException;
+
+/**
+ * Turns unexpected exceptions from the data layer into responses.
+ */
+final class ControllerErrors
+{
+    private ControllerErrors()
+    {
+    }
+
+    /**
+     * @param e the exception a controller caught
+     * @return 503 if the request ran out of time waiting on the database, otherwise 500
+     */
+    static ResponseStatusException unexpected(Exception e)
+    {
+        for (Throwable cause = e; cause != null; cause = cause.getCause())
+        {
+            if (cause instanceof DeadlineExceededException || cause instanceof SQLTimeoutException)
+                return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The server is busy. Please try again.");
+        }
+        return new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+    }
+}
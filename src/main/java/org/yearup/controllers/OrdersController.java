@@ -2,14 +2,14 @@ package org.yearup.controllers;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.yearup.data.EmptyCartException;
 import org.yearup.data.OrdersDao;
-import org.yearup.data.UserDao;
+import org.yearup.data.UnitOfWork;
 import org.yearup.models.Order;
-import org.yearup.models.User;
-
-import java.security.Principal;
+import org.yearup.security.AuthenticatedUser;
 
 @RestController
 @CrossOrigin
@@ -18,39 +18,29 @@ import java.security.Principal;
 public class OrdersController {
 
     private OrdersDao ordersDao;
-    private UserDao userDao;
+    private UnitOfWork unitOfWork;
 
-    public OrdersController(OrdersDao ordersDao, UserDao userDao) {
+    public OrdersController(OrdersDao ordersDao, UnitOfWork unitOfWork) {
         this.ordersDao = ordersDao;
-        this.userDao = userDao;
+        this.unitOfWork = unitOfWork;
     }
 
     /**
      * Checkout - creates an order from the cart and clears it.
-     * @param principal logged-in user
+     * @param user logged-in user
      * @return the new order
+     * @throws ResponseStatusException 409 if the cart is empty, including when another checkout just ordered it
      */
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Order checkOutOrder(Principal principal) {
+    public Order checkOutOrder(@AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            int userId = getUserId(principal);
-            return ordersDao.create(userId);
+            int userId = user.getUserId();
+            return unitOfWork.execute(() -> ordersDao.create(userId));
+        } catch (EmptyCartException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The cart is empty.");
         } catch (Exception e) {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(e);
         }
     }
-
-    /**
-     * Helper to get the user id from principal.
-     * @param principal logged-in user
-     * @return the user id
-     */
-    private int getUserId(Principal principal) {
-        String userName = principal.getName();
-        User user = userDao.getByUserName(userName);
-        if (user == null)
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found.");
-        return user.getId();
-    }
 }
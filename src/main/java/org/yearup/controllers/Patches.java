@@ -0,0 +1,52 @@
+package org.yearup.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.yearup.data.PatchFields;
+
+import java.util.Map;
+
+/**
+ * Reads PATCH bodies. The body is taken as a map so the keys tell us which fields the
+ * client actually sent; the values are then bound onto the model for type conversion.
+ */
+final class Patches
+{
+    private Patches()
+    {
+    }
+
+    /**
+     * @param objectMapper the mapper to bind with
+     * @param fields the request body
+     * @param type the model type
+     * @param patchable the fields the body may set
+     * @return a model holding the sent values; fields that weren't sent are left at their defaults
+     * @throws ResponseStatusException 400 if nothing was sent, a field can't be updated or set
+     * to null, or a value has the wrong type
+     */
+    static <T> T read(ObjectMapper objectMapper, Map<String, Object> fields, Class<T> type, PatchFields patchable)
+    {
+        if (fields == null)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Nothing to update.");
+
+        try
+        {
+            patchable.validate(fields);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        try
+        {
+            return objectMapper.convertValue(fields, type);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid value in request body.");
+        }
+    }
+}
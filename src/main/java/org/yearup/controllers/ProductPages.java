@@ -0,0 +1,56 @@
+package org.yearup.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.yearup.models.Product;
+
+import java.util.List;
+
+/**
+ * Keyset paging for product listings. Pages are ordered by product id; the id of the last
+ * product on a page is returned in the X-Next-Cursor header and goes back in as ?after=
+ * to fetch the next page.
+ */
+final class ProductPages
+{
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private ProductPages()
+    {
+    }
+
+    /**
+     * Resolves the page size for a request, capped at the server maximum.
+     * @param limit the requested page size, or null for the maximum
+     * @param maxPageSize the server maximum
+     * @return the page size to use
+     */
+    static int pageSize(Integer limit, int maxPageSize)
+    {
+        if (limit == null)
+            return maxPageSize;
+        if (limit < 1)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be at least 1.");
+
+        return Math.min(limit, maxPageSize);
+    }
+
+    /**
+     * Builds the response for one page. The products should have been fetched with a limit
+     * of pageSize + 1 so the extra row tells us whether there is a next page.
+     * @param products up to pageSize + 1 products in product id order
+     * @param pageSize the page size
+     * @return the page, with the next cursor header if more products follow
+     */
+    static ResponseEntity<List<Product>> toResponse(List<Product> products, int pageSize)
+    {
+        if (products.size() <= pageSize)
+            return ResponseEntity.ok(products);
+
+        List<Product> page = products.subList(0, pageSize);
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, String.valueOf(page.get(pageSize - 1).getProductId()))
+                .body(page);
+    }
+}
@@ -1,44 +1,148 @@
 package org.yearup.controllers;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.yearup.models.Product;
+import org.yearup.data.Deadline;
 import org.yearup.data.ProductDao;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("products")
-@CrossOrigin
+@CrossOrigin(exposedHeaders = ProductPages.NEXT_CURSOR_HEADER)
 public class ProductsController
 {
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private ProductDao productDao;
+    private ObjectMapper objectMapper;
+    private int maxPageSize;
+    private int maxExportRows;
 
     @Autowired
-    public ProductsController(ProductDao productDao)
+    public ProductsController(ProductDao productDao, ObjectMapper objectMapper,
+                              @Value("${products.page.max-size:100}") int maxPageSize,
+                              @Value("${products.export.max-rows:100000}") int maxExportRows)
     {
         this.productDao = productDao;
+        this.objectMapper = objectMapper;
+        this.maxPageSize = maxPageSize;
+        this.maxExportRows = maxExportRows;
     }
 
+    /**
+     * Searches products, one page at a time. For exports, ?stream=true streams every match
+     * as a single JSON array and an Accept: application/x-ndjson header streams them as
+     * newline-delimited JSON; neither mode is paged, and an export that matches more than
+     * products.export.max-rows products fails instead of being cut short.
+     * @param limit page size, capped at products.page.max-size
+     * @param after the X-Next-Cursor value from the previous page
+     * @return a page of products, with X-Next-Cursor set when more follow
+     */
     @GetMapping("")
     @PreAuthorize("permitAll()")
-    public List<Product> search(@RequestParam(name="cat", required = false) Integer categoryId,
+    public ResponseEntity<List<Product>> search(@RequestParam(name="cat", required = false) Integer categoryId,
                                 @RequestParam(name="minPrice", required = false) BigDecimal minPrice,
                                 @RequestParam(name="maxPrice", required = false) BigDecimal maxPrice,
-                                @RequestParam(name="subCategory", required = false) String subCategory
-                                )
+                                @RequestParam(name="subCategory", required = false) String subCategory,
+                                @RequestParam(name="limit", required = false) Integer limit,
+                                @RequestParam(name="after", required = false) Integer after,
+                                @RequestParam(name="stream", defaultValue = "false") boolean stream,
+                                @RequestHeader(name=HttpHeaders.ACCEPT, required = false) String accept,
+                                HttpServletResponse response
+                                ) throws IOException
     {
+        boolean ndjson = accept != null && accept.contains(APPLICATION_NDJSON_VALUE);
+        if (stream || ndjson)
+        {
+            streamSearch(categoryId, minPrice, maxPrice, subCategory, ndjson, response);
+            return null;
+        }
+
+        int pageSize = ProductPages.pageSize(limit, maxPageSize);
         try
         {
-            return productDao.search(categoryId, minPrice, maxPrice, subCategory);
+            var products = productDao.search(categoryId, minPrice, maxPrice, subCategory, after, pageSize + 1);
+            return ProductPages.toResponse(products, pageSize);
         }
         catch(Exception ex)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(ex);
+        }
+    }
+
+    /**
+     * Writes each product straight to the response as the rows come back from MySQL,
+     * so no list of results is ever held in memory. The export runs on the export deadline
+     * (see RequestDeadlineFilter), which is checked before every row so a slow client can't
+     * hold the connection past it.
+     * <p>
+     * A failure part way through never closes the array or writes the final newline: if
+     * nothing has been sent yet the client gets an error status, otherwise the connection
+     * is dropped, so a truncated export can't pass for a complete one.
+     */
+    private void streamSearch(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String subCategory,
+                              boolean ndjson, HttpServletResponse response) throws IOException
+    {
+        response.setContentType(ndjson ? APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+
+        // flushes stop at the servlet buffer, so an export that fails early has sent nothing yet
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        try (generator)
+        {
+            if (ndjson)
+                generator.setRootValueSeparator(new SerializedString("\n"));
+            else
+                generator.writeStartArray();
+
+            int[] rows = {0};
+            productDao.searchEach(categoryId, minPrice, maxPrice, subCategory, maxExportRows + 1, product -> {
+                Deadline.check();
+                if (++rows[0] > maxExportRows)
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                            "More than " + maxExportRows + " products match. Narrow the search or page through it.");
+                try
+                {
+                    generator.writeObject(product);
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            if (ndjson)
+                generator.writeRaw('\n');
+            else
+                generator.writeEndArray();
+        }
+        catch (RuntimeException e)
+        {
+            // part of the export is already on the wire; let the container abort the response
+            if (response.isCommitted())
+                throw e;
+
+            response.reset();
+            throw e instanceof ResponseStatusException ? e : ControllerErrors.unexpected(e);
         }
     }
 
@@ -57,7 +161,7 @@ public class ProductsController
         }
         catch(Exception ex)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(ex);
         }
     }
 
@@ -71,7 +175,7 @@ public class ProductsController
         }
         catch(Exception ex)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(ex);
         }
     }
 
@@ -85,7 +189,37 @@ public class ProductsController
         }
         catch(Exception ex)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(ex);
+        }
+    }
+
+    /**
+     * Updates only the fields present in the body, e.g. {"stock": 12}.
+     * @param id the product id
+     * @param fields the product properties to change
+     */
+    @PatchMapping("{id}")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void patchProduct(@PathVariable int id, @RequestBody Map<String, Object> fields)
+    {
+        Product changes = Patches.read(objectMapper, fields, Product.class, ProductDao.PATCHABLE);
+        try
+        {
+            if (!productDao.patch(id, changes, fields.keySet()))
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        catch(ResponseStatusException ex)
+        {
+            throw ex;
+        }
+        catch(IllegalArgumentException ex)
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+        catch(Exception ex)
+        {
+            throw ControllerErrors.unexpected(ex);
         }
     }
 
@@ -104,7 +238,7 @@ public class ProductsController
         }
         catch(Exception ex)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(ex);
         }
     }
 }
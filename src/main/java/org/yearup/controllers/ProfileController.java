@@ -1,15 +1,16 @@
 package org.yearup.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.yearup.data.ProfileDao;
-import org.yearup.data.UserDao;
 import org.yearup.models.Profile;
-import org.yearup.models.User;
+import org.yearup.security.AuthenticatedUser;
 
-import java.security.Principal;
+import java.util.Map;
 
 @RestController
 @RequestMapping("profile")
@@ -18,65 +19,81 @@ import java.security.Principal;
 public class ProfileController {
 
     private ProfileDao profileDao;
-    private UserDao userDao;
+    private ObjectMapper objectMapper;
 
-    public ProfileController(ProfileDao profileDao, UserDao userDao)
+    public ProfileController(ProfileDao profileDao, ObjectMapper objectMapper)
     {
         this.profileDao = profileDao;
-        this.userDao = userDao;
+        this.objectMapper = objectMapper;
     }
 
     /**
      * Gets the profile for the logged-in user.
-     * @param principal logged-in user
+     * @param user logged-in user
      * @return the profile
      */
     @GetMapping
-    public Profile getProfile(Principal principal)
+    public Profile getProfile(@AuthenticationPrincipal AuthenticatedUser user)
     {
         try
         {
-            int userId = getUserId(principal);
+            int userId = user.getUserId();
             return profileDao.getProfile(userId);
         }
         catch(Exception e)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(e);
         }
     }
 
     /**
      * Updates the profile for the logged-in user.
      * @param profile the new profile data
-     * @param principal logged-in user
+     * @param user logged-in user
      * @return the updated profile
      */
     @PutMapping
-    public Profile updateProfile(@RequestBody Profile profile, Principal principal)
+    public Profile updateProfile(@RequestBody Profile profile, @AuthenticationPrincipal AuthenticatedUser user)
     {
         try
         {
-            int userId = getUserId(principal);
+            int userId = user.getUserId();
             profileDao.update(userId, profile);
-            return profileDao.getProfile(userId);
+            profile.setUserId(userId);
+            return profile;
         }
         catch(Exception e)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(e);
         }
     }
 
     /**
-     * Helper to get the user id from principal.
-     * @param principal logged-in user
-     * @return the user id
+     * Updates only the profile fields present in the body, e.g. {"phone": "800-555-0000"}.
+     * @param fields the profile properties to change
+     * @param user logged-in user
      */
-    private int getUserId(Principal principal)
+    @PatchMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void patchProfile(@RequestBody Map<String, Object> fields, @AuthenticationPrincipal AuthenticatedUser user)
     {
-        String userName = principal.getName();
-        User user = userDao.getByUserName(userName);
-        if(user == null)
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found.");
-        return user.getId();
+        Profile changes = Patches.read(objectMapper, fields, Profile.class, ProfileDao.PATCHABLE);
+        try
+        {
+            if (!profileDao.patch(user.getUserId(), changes, fields.keySet()))
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        catch(ResponseStatusException e)
+        {
+            throw e;
+        }
+        catch(IllegalArgumentException e)
+        {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        catch(Exception e)
+        {
+            throw ControllerErrors.unexpected(e);
+        }
     }
 }
@@ -2,15 +2,13 @@ package org.yearup.controllers;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.server.ResponseStatusException;
 import org.yearup.data.ShoppingCartDao;
-import org.yearup.data.UserDao;
+import org.yearup.data.UnitOfWork;
 import org.yearup.models.ShoppingCart;
 import org.yearup.models.ShoppingCartItem;
-import org.yearup.models.User;
-
-import java.security.Principal;
+import org.yearup.security.AuthenticatedUser;
 
 @RestController
 @CrossOrigin
@@ -19,53 +17,55 @@ import java.security.Principal;
 public class ShoppingCartController
 {
     private ShoppingCartDao shoppingCartDao;
-    private UserDao userDao;
+    private UnitOfWork unitOfWork;
 
 
-    public ShoppingCartController(ShoppingCartDao shoppingCartDao, UserDao userDao)
+    public ShoppingCartController(ShoppingCartDao shoppingCartDao, UnitOfWork unitOfWork)
     {
         this.shoppingCartDao = shoppingCartDao;
-        this.userDao = userDao;
+        this.unitOfWork = unitOfWork;
     }
 
     /**
      * Gets the cart for the logged-in user.
-     * @param principal logged-in user
+     * @param user logged-in user
      * @return the shopping cart
      */
     @GetMapping
-    public ShoppingCart getCart(Principal principal)
+    public ShoppingCart getCart(@AuthenticationPrincipal AuthenticatedUser user)
     {
         try
         {
-            int userId = getUserId(principal);
+            int userId = user.getUserId();
             return shoppingCartDao.getByUserId(userId);
         }
         catch(Exception e)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(e);
         }
     }
 
     /**
      * Adds a product to the cart. If it already exists, bumps up quantity by 1.
      * @param productId the product to add
-     * @param principal logged-in user
+     * @param user logged-in user
      * @return the updated cart
      */
     @PostMapping("/products/{productId}")
     @ResponseStatus(HttpStatus.CREATED)
-    public ShoppingCart addProductToCart(@PathVariable int productId, Principal principal)
+    public ShoppingCart addProductToCart(@PathVariable int productId, @AuthenticationPrincipal AuthenticatedUser user)
     {
         try
         {
-            int userId = getUserId(principal);
-            shoppingCartDao.addItem(userId, productId);
-            return shoppingCartDao.getByUserId(userId);
+            int userId = user.getUserId();
+            return unitOfWork.execute(() -> {
+                shoppingCartDao.addItem(userId, productId);
+                return shoppingCartDao.getByUserId(userId);
+            });
         }
         catch(Exception e)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(e);
         }
     }
 
@@ -73,55 +73,43 @@ public class ShoppingCartController
      * Updates quantity of a product in the cart.
      * @param productId the product to update
      * @param item has the new quantity
-     * @param principal logged-in user
+     * @param user logged-in user
      * @return the updated cart
      */
     @PutMapping("/products/{productId}")
-    public ShoppingCart updateCartItem(@PathVariable int productId, @RequestBody ShoppingCartItem item, Principal principal)
+    public ShoppingCart updateCartItem(@PathVariable int productId, @RequestBody ShoppingCartItem item, @AuthenticationPrincipal AuthenticatedUser user)
     {
         try
         {
-            int userId = getUserId(principal);
-            shoppingCartDao.updateQuantity(userId, productId, item.getQuantity());
-            return shoppingCartDao.getByUserId(userId);
+            int userId = user.getUserId();
+            return unitOfWork.execute(() -> {
+                shoppingCartDao.updateQuantity(userId, productId, item.getQuantity());
+                return shoppingCartDao.getByUserId(userId);
+            });
         }
         catch(Exception e)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(e);
         }
     }
 
     /**
      * Clears everything from the cart.
-     * @param principal logged-in user
+     * @param user logged-in user
      * @return the empty cart
      */
     @DeleteMapping
-    public ShoppingCart deleteCart(Principal principal)
+    public ShoppingCart deleteCart(@AuthenticationPrincipal AuthenticatedUser user)
     {
         try
         {
-            int userId = getUserId(principal);
+            int userId = user.getUserId();
             shoppingCartDao.deleteCart(userId);
-            return shoppingCartDao.getByUserId(userId);
+            return new ShoppingCart();
         }
         catch(Exception e)
         {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Oops... our bad.");
+            throw ControllerErrors.unexpected(e);
         }
     }
-
-    /**
-     * Helper to get the user id from principal.
-     * @param principal logged-in user
-     * @return the user id
-     */
-    private int getUserId(Principal principal)
-    {
-        String userName = principal.getName();
-        User user = userDao.getByUserName(userName);
-        if(user == null)
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found.");
-        return user.getId();
-    }
 }
@@ -0,0 +1,38 @@
+package org.yearup.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.yearup.data.timing.StatementStatistics;
+import org.yearup.data.timing.StatementSummary;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("admin/statements")
+@CrossOrigin
+@PreAuthorize("hasRole('ROLE_ADMIN')")
+public class StatementStatisticsController
+{
+    private StatementStatistics statementStatistics;
+
+    public StatementStatisticsController(StatementStatistics statementStatistics)
+    {
+        this.statementStatistics = statementStatistics;
+    }
+
+    /**
+     * Gets the SQL statements that have used the most database time since startup.
+     * @param top how many statements to return
+     * @return the statements, largest total time first
+     */
+    @GetMapping
+    public List<StatementSummary> getTop(@RequestParam(defaultValue = "10") int top)
+    {
+        if (top < 1)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "top must be at least 1.");
+
+        return statementStatistics.top(top);
+    }
+}
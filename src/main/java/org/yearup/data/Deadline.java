@@ -0,0 +1,95 @@
+package org.yearup.data;
+
+import java.time.Duration;
+
+/**
+ * The deadline of the request being handled on the current thread. The web layer starts
+ * one per request; the data layer reads it to cap pool waits and statement timeouts, so a
+ * slow query gives its thread and connection back when the caller has stopped waiting.
+ */
+public final class Deadline
+{
+    private static final ThreadLocal<Long> EXPIRES_AT = new ThreadLocal<>();
+
+    private Deadline()
+    {
+    }
+
+    /**
+     * Starts a deadline for the current thread. A nested deadline can only shorten the outer one.
+     * @param budget how long the work may take
+     * @return a scope that restores the previous deadline when closed
+     */
+    public static Scope start(Duration budget)
+    {
+        Long previous = EXPIRES_AT.get();
+        long expiresAt = System.nanoTime() + budget.toNanos();
+        if (previous != null && previous - expiresAt < 0)
+            expiresAt = previous;
+
+        EXPIRES_AT.set(expiresAt);
+        return new Scope(previous);
+    }
+
+    /**
+     * @return true if the current thread has a deadline
+     */
+    public static boolean isSet()
+    {
+        return EXPIRES_AT.get() != null;
+    }
+
+    /**
+     * @return the time left before the deadline, which may be negative, or null if there is no deadline
+     */
+    public static Duration remaining()
+    {
+        Long expiresAt = EXPIRES_AT.get();
+        return expiresAt == null ? null : Duration.ofNanos(expiresAt - System.nanoTime());
+    }
+
+    /**
+     * @throws DeadlineExceededException if the current thread's deadline has passed
+     */
+    public static void check()
+    {
+        Duration remaining = remaining();
+        if (remaining != null && (remaining.isNegative() || remaining.isZero()))
+            throw new DeadlineExceededException("Request deadline exceeded " + remaining.negated().toMillis() + " ms ago");
+    }
+
+    /**
+     * The JDBC query timeout for a statement started now: the remaining time rounded up to
+     * whole seconds, or 0 (no timeout) if there is no deadline.
+     * @return the timeout in seconds
+     * @throws DeadlineExceededException if the deadline has already passed
+     */
+    public static int queryTimeoutSeconds()
+    {
+        check();
+        Duration remaining = remaining();
+        if (remaining == null)
+            return 0;
+
+        return (int) Math.min(Integer.MAX_VALUE, (remaining.toMillis() + 999) / 1000);
+    }
+
+    public static final class Scope implements AutoCloseable
+    {
+        private final Long previous;
+
+        private Scope(Long previous)
+        {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close()
+        {
+            if (previous == null)
+                EXPIRES_AT.remove();
+            else
+                EXPIRES_AT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package org.yearup.data;
+
+/**
+ * Thrown when a request's deadline passes before a database call could start.
+ */
+public class DeadlineExceededException extends RuntimeException
+{
+    public DeadlineExceededException(String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package org.yearup.data;
+
+/**
+ * Thrown when a checkout finds nothing in the cart, either because it was empty or because
+ * another checkout ordered it first.
+ */
+public class EmptyCartException extends RuntimeException
+{
+    public EmptyCartException(int userId)
+    {
+        super("The cart of user " + userId + " is empty");
+    }
+}
@@ -0,0 +1,66 @@
+package org.yearup.data;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The fields a PATCH may write, and which of them are stored in NOT NULL columns. The
+ * controllers check request bodies against it and the daos check the field names again,
+ * so every layer rejects a bad patch with the same message.
+ */
+public final class PatchFields
+{
+    private final Set<String> patchable;
+    private final Set<String> notNull;
+
+    /**
+     * @param patchable the fields that may be written
+     * @param notNull the patchable fields that can't be set to null
+     */
+    public PatchFields(Set<String> patchable, Set<String> notNull)
+    {
+        this.patchable = Set.copyOf(patchable);
+        this.notNull = Set.copyOf(notNull);
+    }
+
+    /**
+     * @param field a model property name
+     * @return true if the field may be written
+     */
+    public boolean contains(String field)
+    {
+        return patchable.contains(field);
+    }
+
+    /**
+     * @param fields the fields a client sent
+     * @throws IllegalArgumentException if there are none or any of them is not patchable
+     */
+    public void validate(Set<String> fields)
+    {
+        if (fields.isEmpty())
+            throw new IllegalArgumentException("Nothing to update.");
+
+        for (String field : fields)
+        {
+            if (!patchable.contains(field))
+                throw new IllegalArgumentException(field + " can't be updated.");
+        }
+    }
+
+    /**
+     * @param values the fields a client sent, with their values
+     * @throws IllegalArgumentException if there are none, any of them is not patchable,
+     * or one that can't be null is null
+     */
+    public void validate(Map<String, ?> values)
+    {
+        validate(values.keySet());
+
+        for (Map.Entry<String, ?> value : values.entrySet())
+        {
+            if (value.getValue() == null && notNull.contains(value.getKey()))
+                throw new IllegalArgumentException(value.getKey() + " can't be null.");
+        }
+    }
+}
@@ -3,14 +3,24 @@ package org.yearup.data;
 import org.yearup.models.Product;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface ProductDao
 {
-    List<Product> search(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String subCategory);
-    List<Product> listByCategoryId(int categoryId);
+    PatchFields PATCHABLE = new PatchFields(
+            Set.of("name", "price", "categoryId", "description", "subCategory", "stock", "featured", "imageUrl"),
+            Set.of("name", "price", "categoryId", "stock", "featured"));
+
+    List<Product> search(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String subCategory, Integer afterProductId, int limit);
+    void searchEach(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String subCategory, int limit, Consumer<Product> action);
+    List<Product> listByCategoryId(int categoryId, Integer afterProductId, int limit);
     Product getById(int productId);
+    List<Product> getByIds(Collection<Integer> productIds);
     Product create(Product product);
     void update(int productId, Product product);
+    boolean patch(int productId, Product changes, Set<String> fields);
     void delete(int productId);
 }
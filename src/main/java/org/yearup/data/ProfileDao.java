@@ -3,9 +3,17 @@ package org.yearup.data;
 
 import org.yearup.models.Profile;
 
+import java.util.Set;
+
 public interface ProfileDao
 {
+    // every profile column is NOT NULL
+    PatchFields PATCHABLE = new PatchFields(
+            Set.of("firstName", "lastName", "phone", "email", "address", "city", "state", "zip"),
+            Set.of("firstName", "lastName", "phone", "email", "address", "city", "state", "zip"));
+
     Profile getProfile(int userId);
     Profile create(Profile profile);
     void update(int userId, Profile profile);
+    boolean patch(int userId, Profile changes, Set<String> fields);
 }
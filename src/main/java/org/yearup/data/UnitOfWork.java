@@ -0,0 +1,21 @@
+package org.yearup.data;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs several DAO calls as one unit: they share a single connection and are committed
+ * together when the work returns, or rolled back if it throws. Nested units join the
+ * outer one.
+ */
+public interface UnitOfWork
+{
+    <T> T execute(Supplier<T> work);
+
+    default void run(Runnable work)
+    {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+}
@@ -16,5 +16,11 @@ public interface UserDao {
 
     User create(User user);
 
+    /**
+     * Creates a user whose password field already holds the hash, so callers can hash
+     * before they take a connection.
+     */
+    User createHashed(User user);
+
     boolean exists(String username);
 }
@@ -0,0 +1,224 @@
+package org.yearup.data.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.yearup.data.ProductDao;
+import org.yearup.data.mysql.MySqlProductDao;
+import org.yearup.data.routing.ReadWriteRoutingDataSource;
+import org.yearup.models.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Read-through cache in front of the product table. Products are cached by id in a
+ * size-bounded Caffeine cache (W-TinyLFU admission and eviction) with a time to live.
+ * Writes that go through this dao invalidate the affected id. For the read-your-writes
+ * window after a write, a miss on that id is loaded from the primary, so a replica that hasn't
+ * caught up can't put the old row back in the cache for the whole time to live.
+ * Reads hand out copies, so a caller changing its product can't change the cached one.
+ */
+@Primary
+@Component
+@Profile("!memory")
+public class CachingProductDao implements ProductDao
+{
+    private final ProductDao delegate;
+    private final Cache<Integer, Product> cache;
+    private final Cache<Integer, Boolean> recentlyWritten;
+
+    @Autowired
+    public CachingProductDao(MySqlProductDao delegate,
+                             MeterRegistry meterRegistry,
+                             @Value("${products.cache.max-size:10000}") long maxSize,
+                             @Value("${products.cache.ttl-seconds:300}") long ttlSeconds,
+                             @Value("${datasource.replica.read-your-writes-ms:5000}") long readYourWritesMillis)
+    {
+        this(delegate, maxSize, Duration.ofSeconds(ttlSeconds), Duration.ofMillis(readYourWritesMillis));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+    }
+
+    public CachingProductDao(ProductDao delegate, long maxSize, Duration ttl)
+    {
+        this(delegate, maxSize, ttl, Duration.ZERO);
+    }
+
+    /**
+     * @param readYourWrites how long after a write misses on the written id are loaded from the primary
+     */
+    public CachingProductDao(ProductDao delegate, long maxSize, Duration ttl, Duration readYourWrites)
+    {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.recentlyWritten = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(readYourWrites)
+                .build();
+    }
+
+    /**
+     * Hit, miss and eviction counters for the product cache.
+     * @return a snapshot of the cache statistics
+     */
+    public CacheStats getStats()
+    {
+        return cache.stats();
+    }
+
+    @Override
+    public List<Product> search(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String subCategory, Integer afterProductId, int limit)
+    {
+        return delegate.search(categoryId, minPrice, maxPrice, subCategory, afterProductId, limit);
+    }
+
+    @Override
+    public void searchEach(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String subCategory, int limit, Consumer<Product> action)
+    {
+        delegate.searchEach(categoryId, minPrice, maxPrice, subCategory, limit, action);
+    }
+
+    @Override
+    public List<Product> listByCategoryId(int categoryId, Integer afterProductId, int limit)
+    {
+        return delegate.listByCategoryId(categoryId, afterProductId, limit);
+    }
+
+    @Override
+    public Product getById(int productId)
+    {
+        Product cached = cache.get(productId, id -> recentlyWritten.getIfPresent(id) != null
+                ? ReadWriteRoutingDataSource.onPrimary(() -> delegate.getById(id))
+                : delegate.getById(id));
+        return cached == null ? null : new Product(cached);
+    }
+
+    @Override
+    public List<Product> getByIds(Collection<Integer> productIds)
+    {
+        Map<Integer, Product> cached = cache.getAll(productIds, missing -> {
+            List<Integer> ids = new ArrayList<>();
+            missing.forEach(ids::add);
+
+            boolean written = ids.stream().anyMatch(id -> recentlyWritten.getIfPresent(id) != null);
+            List<Product> products = written
+                    ? ReadWriteRoutingDataSource.onPrimary(() -> delegate.getByIds(ids))
+                    : delegate.getByIds(ids);
+
+            Map<Integer, Product> loaded = new HashMap<>();
+            for (Product product : products)
+            {
+                loaded.put(product.getProductId(), product);
+            }
+            return loaded;
+        });
+        List<Product> products = new ArrayList<>(cached.size());
+        for (Product product : cached.values())
+        {
+            products.add(new Product(product));
+        }
+        return products;
+    }
+
+    @Override
+    public Product create(Product product)
+    {
+        Product created = delegate.create(product);
+        if (created != null)
+            written(created.getProductId());
+        return created;
+    }
+
+    @Override
+    public void update(int productId, Product product)
+    {
+        try
+        {
+            delegate.update(productId, product);
+        }
+        finally
+        {
+            written(productId);
+        }
+    }
+
+    /**
+     * Applies the patch to the cached copy instead of evicting it, so frequent stock
+     * changes don't keep sending reads of hot products back to the database.
+     */
+    @Override
+    public boolean patch(int productId, Product changes, Set<String> fields)
+    {
+        boolean patched;
+        try
+        {
+            patched = delegate.patch(productId, changes, fields);
+        }
+        catch (RuntimeException e)
+        {
+            written(productId);
+            throw e;
+        }
+
+        recentlyWritten.put(productId, Boolean.TRUE);
+        if (patched)
+            cache.asMap().computeIfPresent(productId, (id, cached) -> patched(cached, changes, fields));
+        else
+            cache.invalidate(productId);
+        return patched;
+    }
+
+    private static Product patched(Product cached, Product changes, Set<String> fields)
+    {
+        BigDecimal price = fields.contains("price") ? changes.getPrice() : cached.getPrice();
+        return new Product(
+                cached.getProductId(),
+                fields.contains("name") ? changes.getName() : cached.getName(),
+                // stored as DECIMAL(10, 2)
+                price == null ? null : price.setScale(2, RoundingMode.HALF_UP),
+                fields.contains("categoryId") ? changes.getCategoryId() : cached.getCategoryId(),
+                fields.contains("description") ? changes.getDescription() : cached.getDescription(),
+                fields.contains("subCategory") ? changes.getSubCategory() : cached.getSubCategory(),
+                fields.contains("stock") ? changes.getStock() : cached.getStock(),
+                fields.contains("featured") ? changes.isFeatured() : cached.isFeatured(),
+                fields.contains("imageUrl") ? changes.getImageUrl() : cached.getImageUrl());
+    }
+
+    @Override
+    public void delete(int productId)
+    {
+        try
+        {
+            delegate.delete(productId);
+        }
+        finally
+        {
+            written(productId);
+        }
+    }
+
+    private void written(int productId)
+    {
+        recentlyWritten.put(productId, Boolean.TRUE);
+        cache.invalidate(productId);
+    }
+}
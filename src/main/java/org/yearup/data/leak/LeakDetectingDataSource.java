@@ -0,0 +1,223 @@
+package org.yearup.data.leak;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in leak tracking for JDBC resources. Every statement and result set handed out is
+ * recorded with the stack that allocated it. Any that are still open when their connection
+ * is closed (given back to the pool) are reported as leaks, with that stack.
+ * In LOG mode leaks are logged. In FAIL mode closing the connection also throws, so a test
+ * that leaks fails at the DAO call that leaked.
+ * Closing a statement closes its result sets, as JDBC does, so a result set is only a leak
+ * when its statement is leaked too.
+ */
+public class LeakDetectingDataSource implements DataSource
+{
+    public enum Mode
+    {
+        LOG,
+        FAIL
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(LeakDetectingDataSource.class);
+
+    private final DataSource delegate;
+    private final Mode mode;
+    private final LongAdder leaks = new LongAdder();
+
+    public LeakDetectingDataSource(DataSource delegate, Mode mode)
+    {
+        this.delegate = delegate;
+        this.mode = mode;
+    }
+
+    /**
+     * @return how many statements and result sets have been leaked since startup
+     */
+    public long getLeakCount()
+    {
+        return leaks.sum();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        return tracked(delegate.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException
+    {
+        return tracked(delegate.getConnection(username, password));
+    }
+
+    private Connection tracked(Connection target)
+    {
+        List<Resource> open = new ArrayList<>();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close"))
+                    {
+                        List<Resource> leaked = open.stream().filter(resource -> !resource.closed).toList();
+                        open.clear();
+                        target.close();
+                        report(leaked);
+                        return null;
+                    }
+
+                    Object result = invoke(target, method, args);
+                    if (result instanceof Statement statement)
+                    {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                        return tracked(statement, sql, open);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement tracked(Statement target, String sql, List<Resource> open)
+    {
+        Class<?> type = target instanceof CallableStatement ? CallableStatement.class
+                : target instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        Resource statement = new Resource(type, sql, null);
+        open.add(statement);
+
+        return (Statement) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (method.getName().equals("close"))
+                    {
+                        statement.closed = true;
+                        open.stream()
+                                .filter(resource -> resource.statement == statement)
+                                .forEach(resource -> resource.closed = true);
+                    }
+                    else if (result instanceof ResultSet resultSet)
+                    {
+                        Resource resource = new Resource(ResultSet.class, statement.sql, statement);
+                        open.add(resource);
+                        return tracked(resultSet, resource);
+                    }
+                    return result;
+                });
+    }
+
+    private ResultSet tracked(ResultSet target, Resource resultSet)
+    {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (method.getName().equals("close"))
+                        resultSet.closed = true;
+                    return result;
+                });
+    }
+
+    private void report(List<Resource> leaked)
+    {
+        if (leaked.isEmpty())
+            return;
+
+        leaks.add(leaked.size());
+        for (Resource resource : leaked)
+        {
+            LOG.warn("Leaked {} for [{}], still open when its connection was closed. Allocated at:",
+                    resource.type.getSimpleName(), resource.sql, resource.allocatedAt);
+        }
+
+        if (mode == Mode.FAIL)
+        {
+            IllegalStateException failure = new IllegalStateException(leaked.size() + " JDBC resource(s) leaked, first for [" + leaked.get(0).sql + "]");
+            failure.initCause(leaked.get(0).allocatedAt);
+            throw failure;
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable
+    {
+        try
+        {
+            return method.invoke(target, args);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+    private static final class Resource
+    {
+        private final Class<?> type;
+        private final String sql;
+        private final Resource statement;
+        private final Throwable allocatedAt = new Throwable("allocation stack");
+        private boolean closed;
+
+        private Resource(Class<?> type, String sql, Resource statement)
+        {
+            this.type = type;
+            this.sql = sql;
+            this.statement = statement;
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException
+    {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException
+    {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException
+    {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException
+    {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException
+    {
+        return delegate.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) throws SQLException
+    {
+        return type.isInstance(this) ? type.cast(this) : delegate.unwrap(type);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) throws SQLException
+    {
+        return type.isInstance(this) || delegate.isWrapperFor(type);
+    }
+}
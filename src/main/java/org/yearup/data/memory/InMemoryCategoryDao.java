@@ -0,0 +1,47 @@
+package org.yearup.data.memory;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.yearup.data.CategoryDao;
+import org.yearup.models.Category;
+
+import java.util.List;
+
+@Component
+@Profile("memory")
+public class InMemoryCategoryDao implements CategoryDao
+{
+    private final IntMap<Category> categories = new IntMap<>();
+
+    @Override
+    public List<Category> getAllCategories()
+    {
+        return categories.values();
+    }
+
+    @Override
+    public Category getById(int categoryId)
+    {
+        return categories.get(categoryId);
+    }
+
+    @Override
+    public Category create(Category category)
+    {
+        Category created = new Category(categories.nextKey(), category.getName(), category.getDescription());
+        categories.put(created.getCategoryId(), created);
+        return created;
+    }
+
+    @Override
+    public void update(int categoryId, Category category)
+    {
+        categories.computeIfPresent(categoryId, existing -> new Category(categoryId, category.getName(), category.getDescription()));
+    }
+
+    @Override
+    public void delete(int categoryId)
+    {
+        categories.remove(categoryId);
+    }
+}
@@ -0,0 +1,65 @@
+package org.yearup.data.memory;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.yearup.data.EmptyCartException;
+import org.yearup.data.OrdersDao;
+import org.yearup.data.ProductDao;
+import org.yearup.data.ProfileDao;
+import org.yearup.models.Order;
+import org.yearup.models.OrderLineItem;
+import org.yearup.models.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Component
+@Profile("memory")
+public class InMemoryOrdersDao implements OrdersDao
+{
+    private final ProfileDao profileDao;
+    private final InMemoryShoppingCartDao shoppingCartDao;
+    private final ProductDao productDao;
+    private final IntMap<Order> orders = new IntMap<>();
+    private final IntMap<OrderLineItem> lineItems = new IntMap<>();
+
+    public InMemoryOrdersDao(ProfileDao profileDao, InMemoryShoppingCartDao shoppingCartDao, ProductDao productDao)
+    {
+        this.profileDao = profileDao;
+        this.shoppingCartDao = shoppingCartDao;
+        this.productDao = productDao;
+    }
+
+    /**
+     * Creates an order from the user's cart, shipping to the profile address, and empties
+     * the cart.
+     * @param userId the user id
+     * @return the new order
+     * @throws IllegalStateException if the user has no profile
+     * @throws EmptyCartException if there is nothing in the cart to order
+     */
+    @Override
+    public Order create(int userId)
+    {
+        org.yearup.models.Profile profile = profileDao.getProfile(userId);
+        if (profile == null)
+            throw new IllegalStateException("User " + userId + " has no profile");
+
+        Map<Integer, Integer> items = shoppingCartDao.takeAll(userId);
+        if (items.isEmpty())
+            throw new EmptyCartException(userId);
+
+        Order order = new Order(orders.nextKey(), userId, LocalDateTime.now(), profile.getAddress(), profile.getCity(),
+                profile.getState(), profile.getZip(), BigDecimal.ZERO);
+        orders.put(order.getOrderId(), order);
+
+        for (Product product : productDao.getByIds(items.keySet()))
+        {
+            int id = lineItems.nextKey();
+            lineItems.put(id, new OrderLineItem(id, order.getOrderId(), product.getProductId(), product.getPrice(),
+                    items.get(product.getProductId()), BigDecimal.ZERO));
+        }
+        return order;
+    }
+}
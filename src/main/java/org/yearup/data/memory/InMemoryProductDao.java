@@ -0,0 +1,236 @@
+package org.yearup.data.memory;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.yearup.data.ProductDao;
+import org.yearup.models.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Products held in memory, with secondary indexes on category and price standing in for
+ * idx_products_category_price and idx_products_price. Reads never lock; writes are serialized
+ * and keep the indexes in step. Every candidate an index returns is checked again against
+ * the current row, so a search racing a write can miss the product being moved but never
+ * returns one that doesn't match. Rows are stored and handed out as copies, so callers can't
+ * change a stored row.
+ */
+@Component
+@Profile("memory")
+public class InMemoryProductDao implements ProductDao
+{
+    private record PriceKey(BigDecimal price, int productId) implements Comparable<PriceKey>
+    {
+        @Override
+        public int compareTo(PriceKey other)
+        {
+            int byPrice = price.compareTo(other.price);
+            return byPrice != 0 ? byPrice : Integer.compare(productId, other.productId);
+        }
+    }
+
+    private final IntMap<Product> products = new IntMap<>();
+    private final Map<Integer, NavigableSet<Integer>> byCategory = new ConcurrentHashMap<>();
+    private final NavigableSet<PriceKey> byPrice = new ConcurrentSkipListSet<>();
+
+    @Override
+    public List<Product> search(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String subCategory, Integer afterProductId, int limit)
+    {
+        return find(categoryId, minPrice, maxPrice, subCategory, afterProductId, limit);
+    }
+
+    @Override
+    public void searchEach(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String subCategory, int limit, Consumer<Product> action)
+    {
+        find(categoryId, minPrice, maxPrice, subCategory, null, limit).forEach(action);
+    }
+
+    @Override
+    public List<Product> listByCategoryId(int categoryId, Integer afterProductId, int limit)
+    {
+        return find(categoryId, null, null, null, afterProductId, limit);
+    }
+
+    /**
+     * Picks the narrowest index for the filters: the category's products, then the price range,
+     * then a scan of every product. Results come back in product id order.
+     */
+    private List<Product> find(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String subCategory, Integer afterProductId, int limit)
+    {
+        List<Product> found = stored(categoryId, minPrice, maxPrice, subCategory, afterProductId, limit);
+        found.replaceAll(Product::new);
+        return found;
+    }
+
+    private List<Product> stored(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String subCategory, Integer afterProductId, int limit)
+    {
+        int after = afterProductId == null ? 0 : afterProductId;
+        String sub = subCategory == null || subCategory.isEmpty() ? null : subCategory;
+        Predicate<Product> matches = product ->
+                (categoryId == null || product.getCategoryId() == categoryId)
+                && (minPrice == null || product.getPrice().compareTo(minPrice) >= 0)
+                && (maxPrice == null || product.getPrice().compareTo(maxPrice) <= 0)
+                // the column's collation is case-insensitive
+                && (sub == null || sub.equalsIgnoreCase(product.getSubCategory()))
+                && product.getProductId() > after;
+
+        if (categoryId != null)
+        {
+            NavigableSet<Integer> ids = byCategory.get(categoryId);
+            return ids == null ? new ArrayList<>() : collect(ids.tailSet(after, false), matches, limit);
+        }
+
+        if (minPrice != null || maxPrice != null)
+        {
+            NavigableSet<PriceKey> range = byPrice;
+            if (minPrice != null)
+                range = range.tailSet(new PriceKey(minPrice, Integer.MIN_VALUE), true);
+            if (maxPrice != null)
+                range = range.headSet(new PriceKey(maxPrice, Integer.MAX_VALUE), true);
+
+            int[] ids = range.stream().mapToInt(PriceKey::productId).filter(id -> id > after).toArray();
+            Arrays.sort(ids);
+            return collect(Arrays.stream(ids).boxed().toList(), matches, limit);
+        }
+
+        return products.values(after, matches, limit);
+    }
+
+    private List<Product> collect(Iterable<Integer> ids, Predicate<Product> matches, int limit)
+    {
+        List<Product> found = new ArrayList<>();
+        for (int id : ids)
+        {
+            if (found.size() == limit)
+                break;
+
+            Product product = products.get(id);
+            if (product != null && matches.test(product))
+                found.add(product);
+        }
+        return found;
+    }
+
+    @Override
+    public Product getById(int productId)
+    {
+        Product product = products.get(productId);
+        return product == null ? null : new Product(product);
+    }
+
+    @Override
+    public List<Product> getByIds(Collection<Integer> productIds)
+    {
+        List<Product> found = new ArrayList<>();
+        for (int productId : productIds)
+        {
+            Product product = products.get(productId);
+            if (product != null)
+                found.add(new Product(product));
+        }
+        return found;
+    }
+
+    @Override
+    public synchronized Product create(Product product)
+    {
+        Product created = copy(products.nextKey(), product);
+        products.put(created.getProductId(), created);
+        index(created);
+        return new Product(created);
+    }
+
+    @Override
+    public synchronized void update(int productId, Product product)
+    {
+        Product existing = products.get(productId);
+        if (existing == null)
+            return;
+
+        replace(existing, copy(productId, product));
+    }
+
+    @Override
+    public synchronized boolean patch(int productId, Product changes, Set<String> fields)
+    {
+        PATCHABLE.validate(fields);
+
+        Product existing = products.get(productId);
+        if (existing == null)
+            return false;
+
+        replace(existing, copy(productId, new Product(
+                productId,
+                fields.contains("name") ? changes.getName() : existing.getName(),
+                fields.contains("price") ? changes.getPrice() : existing.getPrice(),
+                fields.contains("categoryId") ? changes.getCategoryId() : existing.getCategoryId(),
+                fields.contains("description") ? changes.getDescription() : existing.getDescription(),
+                fields.contains("subCategory") ? changes.getSubCategory() : existing.getSubCategory(),
+                fields.contains("stock") ? changes.getStock() : existing.getStock(),
+                fields.contains("featured") ? changes.isFeatured() : existing.isFeatured(),
+                fields.contains("imageUrl") ? changes.getImageUrl() : existing.getImageUrl())));
+        return true;
+    }
+
+    @Override
+    public synchronized void delete(int productId)
+    {
+        Product removed = products.remove(productId);
+        if (removed != null)
+            unindex(removed);
+    }
+
+    private void replace(Product existing, Product updated)
+    {
+        unindex(existing);
+        products.put(updated.getProductId(), updated);
+        index(updated);
+    }
+
+    private void index(Product product)
+    {
+        byCategory.computeIfAbsent(product.getCategoryId(), id -> new ConcurrentSkipListSet<>()).add(product.getProductId());
+        byPrice.add(new PriceKey(product.getPrice(), product.getProductId()));
+    }
+
+    private void unindex(Product product)
+    {
+        NavigableSet<Integer> ids = byCategory.get(product.getCategoryId());
+        if (ids != null)
+            ids.remove(product.getProductId());
+        byPrice.remove(new PriceKey(product.getPrice(), product.getProductId()));
+    }
+
+    /**
+     * Copies the product so callers can't change the stored row, rounding the price the way
+     * the DECIMAL(10, 2) column stores it.
+     */
+    private static Product copy(int productId, Product product)
+    {
+        if (product.getPrice() == null)
+            throw new IllegalArgumentException("A product needs a price.");
+
+        return new Product(
+                productId,
+                product.getName(),
+                product.getPrice().setScale(2, RoundingMode.HALF_UP),
+                product.getCategoryId(),
+                product.getDescription(),
+                product.getSubCategory(),
+                product.getStock(),
+                product.isFeatured(),
+                product.getImageUrl());
+    }
+}
@@ -0,0 +1,61 @@
+package org.yearup.data.memory;
+
+import org.springframework.stereotype.Component;
+import org.yearup.data.ProfileDao;
+import org.yearup.models.Profile;
+
+import java.util.Set;
+
+@Component
+@org.springframework.context.annotation.Profile("memory")
+public class InMemoryProfileDao implements ProfileDao
+{
+    private final IntMap<Profile> profiles = new IntMap<>();
+
+    @Override
+    public Profile getProfile(int userId)
+    {
+        return profiles.get(userId);
+    }
+
+    /**
+     * @throws IllegalStateException if the user already has a profile
+     */
+    @Override
+    public Profile create(Profile profile)
+    {
+        if (profiles.putIfAbsent(profile.getUserId(), copy(profile.getUserId(), profile)) != null)
+            throw new IllegalStateException("User " + profile.getUserId() + " already has a profile");
+
+        return profile;
+    }
+
+    @Override
+    public void update(int userId, Profile profile)
+    {
+        profiles.computeIfPresent(userId, existing -> copy(userId, profile));
+    }
+
+    @Override
+    public boolean patch(int userId, Profile changes, Set<String> fields)
+    {
+        PATCHABLE.validate(fields);
+
+        return profiles.computeIfPresent(userId, existing -> new Profile(
+                userId,
+                fields.contains("firstName") ? changes.getFirstName() : existing.getFirstName(),
+                fields.contains("lastName") ? changes.getLastName() : existing.getLastName(),
+                fields.contains("phone") ? changes.getPhone() : existing.getPhone(),
+                fields.contains("email") ? changes.getEmail() : existing.getEmail(),
+                fields.contains("address") ? changes.getAddress() : existing.getAddress(),
+                fields.contains("city") ? changes.getCity() : existing.getCity(),
+                fields.contains("state") ? changes.getState() : existing.getState(),
+                fields.contains("zip") ? changes.getZip() : existing.getZip())) != null;
+    }
+
+    private static Profile copy(int userId, Profile profile)
+    {
+        return new Profile(userId, profile.getFirstName(), profile.getLastName(), profile.getPhone(), profile.getEmail(),
+                profile.getAddress(), profile.getCity(), profile.getState(), profile.getZip());
+    }
+}
@@ -0,0 +1,79 @@
+package org.yearup.data.memory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.yearup.data.CategoryDao;
+import org.yearup.data.ProductDao;
+import org.yearup.data.ProfileDao;
+import org.yearup.data.UserDao;
+import org.yearup.models.Category;
+import org.yearup.models.Product;
+import org.yearup.models.User;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Starts the in-memory store with what create_database_easyshop.sql sets up: the user and
+ * admin accounts (password "password") and three categories, plus memory.seed.products
+ * generated products spread across them.
+ */
+@Component
+@Profile("memory")
+public class InMemorySeedData
+{
+    private static final String[] SUBCATEGORIES = {"Black", "White", "Gray", "Silver", "Red", "Blue"};
+
+    private final UserDao userDao;
+    private final ProfileDao profileDao;
+    private final CategoryDao categoryDao;
+    private final ProductDao productDao;
+    private final int products;
+
+    public InMemorySeedData(UserDao userDao, ProfileDao profileDao, CategoryDao categoryDao, ProductDao productDao,
+                            @Value("${memory.seed.products:1000}") int products)
+    {
+        this.userDao = userDao;
+        this.profileDao = profileDao;
+        this.categoryDao = categoryDao;
+        this.productDao = productDao;
+        this.products = products;
+    }
+
+    @PostConstruct
+    public void load()
+    {
+        addUser("user", "ROLE_USER", "Joe", "Joesephus");
+        addUser("admin", "ROLE_ADMIN", "Adam", "Admamson");
+
+        int[] categoryIds = {
+                categoryDao.create(new Category(0, "Electronics", "Explore the latest gadgets and electronic devices.")).getCategoryId(),
+                categoryDao.create(new Category(0, "Fashion", "Discover trendy clothing and accessories for men and women.")).getCategoryId(),
+                categoryDao.create(new Category(0, "Home & Kitchen", "Find everything you need to decorate and equip your home.")).getCategoryId()};
+
+        // fixed seed so every run starts with the same catalog
+        Random random = new Random(42);
+        for (int i = 1; i <= products; i++)
+        {
+            productDao.create(new Product(
+                    0,
+                    "Product " + i,
+                    BigDecimal.valueOf(99 + random.nextInt(100_000), 2),
+                    categoryIds[random.nextInt(categoryIds.length)],
+                    "Generated product " + i + ".",
+                    SUBCATEGORIES[random.nextInt(SUBCATEGORIES.length)],
+                    random.nextInt(100),
+                    random.nextInt(20) == 0,
+                    "product-" + i + ".jpg"));
+        }
+    }
+
+    private void addUser(String username, String role, String firstName, String lastName)
+    {
+        User user = userDao.create(new User(0, username, "password", role));
+        profileDao.create(new org.yearup.models.Profile(user.getId(), firstName, lastName, "800-555-1234",
+                username + "@email.com", "789 Oak Avenue", "Dallas", "TX", "75051"));
+    }
+}
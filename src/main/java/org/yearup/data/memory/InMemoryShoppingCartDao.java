@@ -0,0 +1,108 @@
+package org.yearup.data.memory;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.yearup.data.ProductDao;
+import org.yearup.data.ShoppingCartDao;
+import org.yearup.models.Product;
+import org.yearup.models.ShoppingCart;
+import org.yearup.models.ShoppingCartItem;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One concurrent product id to quantity map per user. Every cart change is a single atomic
+ * map operation, so concurrent adds can't lose an increment and checkout can't order an
+ * item twice.
+ */
+@Component
+@Profile("memory")
+public class InMemoryShoppingCartDao implements ShoppingCartDao
+{
+    private final ProductDao productDao;
+    private final IntMap<Map<Integer, Integer>> carts = new IntMap<>();
+
+    public InMemoryShoppingCartDao(ProductDao productDao)
+    {
+        this.productDao = productDao;
+    }
+
+    @Override
+    public ShoppingCart getByUserId(int userId)
+    {
+        ShoppingCart shoppingCart = new ShoppingCart();
+        Map<Integer, Integer> cart = carts.get(userId);
+        if (cart == null)
+            return shoppingCart;
+
+        for (Product product : productDao.getByIds(cart.keySet()))
+        {
+            Integer quantity = cart.get(product.getProductId());
+            if (quantity == null)
+                continue;
+
+            ShoppingCartItem item = new ShoppingCartItem();
+            item.setProduct(product);
+            item.setQuantity(quantity);
+            shoppingCart.add(item);
+        }
+        return shoppingCart;
+    }
+
+    /**
+     * @throws IllegalArgumentException if there is no such product
+     */
+    @Override
+    public void addItem(int userId, int productId)
+    {
+        if (productDao.getById(productId) == null)
+            throw new IllegalArgumentException("No product " + productId);
+
+        cart(userId).merge(productId, 1, Integer::sum);
+    }
+
+    @Override
+    public void updateQuantity(int userId, int productId, int quantity)
+    {
+        Map<Integer, Integer> cart = carts.get(userId);
+        if (cart != null)
+            cart.computeIfPresent(productId, (id, current) -> quantity);
+    }
+
+    @Override
+    public void deleteCart(int userId)
+    {
+        Map<Integer, Integer> cart = carts.get(userId);
+        if (cart != null)
+            cart.clear();
+    }
+
+    /**
+     * Removes everything in the user's cart. Each item is removed atomically, so an item
+     * added while this runs is either taken here or left for the next checkout.
+     * @param userId the user id
+     * @return the product ids and quantities that were removed
+     */
+    Map<Integer, Integer> takeAll(int userId)
+    {
+        Map<Integer, Integer> taken = new HashMap<>();
+        Map<Integer, Integer> cart = carts.get(userId);
+        if (cart == null)
+            return taken;
+
+        for (Integer productId : cart.keySet())
+        {
+            Integer quantity = cart.remove(productId);
+            if (quantity != null)
+                taken.put(productId, quantity);
+        }
+        return taken;
+    }
+
+    private Map<Integer, Integer> cart(int userId)
+    {
+        return carts.computeIfAbsent(userId, id -> new ConcurrentHashMap<>());
+    }
+}
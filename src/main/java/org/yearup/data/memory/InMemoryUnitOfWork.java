@@ -0,0 +1,22 @@
+package org.yearup.data.memory;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.yearup.data.UnitOfWork;
+
+import java.util.function.Supplier;
+
+/**
+ * Each in-memory DAO call is atomic on its own and there is no connection to share, so a
+ * unit of work just runs the work. Nothing is rolled back if it throws.
+ */
+@Component
+@Profile("memory")
+public class InMemoryUnitOfWork implements UnitOfWork
+{
+    @Override
+    public <T> T execute(Supplier<T> work)
+    {
+        return work.get();
+    }
+}
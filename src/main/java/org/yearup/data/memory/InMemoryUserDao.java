@@ -0,0 +1,94 @@
+package org.yearup.data.memory;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.yearup.data.UserDao;
+import org.yearup.models.User;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Users by id, plus a username index that is case-insensitive like ux_users_username.
+ */
+@Component
+@Profile("memory")
+public class InMemoryUserDao implements UserDao
+{
+    private final PasswordEncoder passwordEncoder;
+    private final IntMap<User> users = new IntMap<>();
+    private final Map<String, User> byUsername = new ConcurrentHashMap<>();
+
+    public InMemoryUserDao(PasswordEncoder passwordEncoder)
+    {
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    /**
+     * @throws IllegalStateException if the username is taken
+     */
+    @Override
+    public User create(User newUser)
+    {
+        String hashedPassword = passwordEncoder.encode(newUser.getPassword());
+        return createHashed(new User(0, newUser.getUsername(), hashedPassword, newUser.getRole()));
+    }
+
+    /**
+     * @throws IllegalStateException if the username is taken
+     */
+    @Override
+    public User createHashed(User newUser)
+    {
+        synchronized (this)
+        {
+            String key = key(newUser.getUsername());
+            if (byUsername.containsKey(key))
+                throw new IllegalStateException("Duplicate username " + newUser.getUsername());
+
+            User user = new User(users.nextKey(), newUser.getUsername(), newUser.getPassword(), newUser.getRole());
+            users.put(user.getId(), user);
+            byUsername.put(key, user);
+            return new User(user.getId(), user.getUsername(), "", user.getRole());
+        }
+    }
+
+    @Override
+    public List<User> getAll()
+    {
+        return users.values();
+    }
+
+    @Override
+    public User getUserById(int userId)
+    {
+        return users.get(userId);
+    }
+
+    @Override
+    public User getByUserName(String username)
+    {
+        return username == null ? null : byUsername.get(key(username));
+    }
+
+    @Override
+    public int getIdByUsername(String username)
+    {
+        User user = getByUserName(username);
+        return user != null ? user.getId() : -1;
+    }
+
+    @Override
+    public boolean exists(String username)
+    {
+        return getByUserName(username) != null;
+    }
+
+    private static String key(String username)
+    {
+        return username.toLowerCase(Locale.ROOT);
+    }
+}
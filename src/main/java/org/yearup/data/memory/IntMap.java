@@ -0,0 +1,132 @@
+package org.yearup.data.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A concurrent map from auto-increment ids to values, stored in an array indexed by id:
+ * no boxing or hashing on lookups, and iteration comes out in id order like a primary key
+ * scan. Reads are lock-free; writes take the map's lock so the array can grow.
+ * @param <V> the value type
+ */
+final class IntMap<V>
+{
+    private final AtomicInteger lastKey = new AtomicInteger();
+    private volatile AtomicReferenceArray<V> slots = new AtomicReferenceArray<>(64);
+
+    /**
+     * @return the next unused id, starting at 1
+     */
+    int nextKey()
+    {
+        return lastKey.incrementAndGet();
+    }
+
+    V get(int key)
+    {
+        AtomicReferenceArray<V> current = slots;
+        return key >= 0 && key < current.length() ? current.get(key) : null;
+    }
+
+    synchronized V put(int key, V value)
+    {
+        ensureCapacity(key);
+        lastKey.accumulateAndGet(key, Math::max);
+        return slots.getAndSet(key, value);
+    }
+
+    synchronized V putIfAbsent(int key, V value)
+    {
+        V existing = get(key);
+        return existing != null ? existing : put(key, value);
+    }
+
+    /**
+     * @return the new value, or null if there was no value to update
+     */
+    synchronized V computeIfPresent(int key, UnaryOperator<V> update)
+    {
+        V existing = get(key);
+        if (existing == null)
+            return null;
+
+        V updated = update.apply(existing);
+        slots.set(key, updated);
+        return updated;
+    }
+
+    V computeIfAbsent(int key, IntFunction<V> create)
+    {
+        V existing = get(key);
+        if (existing != null)
+            return existing;
+
+        synchronized (this)
+        {
+            existing = get(key);
+            if (existing == null)
+                put(key, existing = create.apply(key));
+            return existing;
+        }
+    }
+
+    synchronized V remove(int key)
+    {
+        if (get(key) == null)
+            return null;
+
+        return slots.getAndSet(key, null);
+    }
+
+    /**
+     * Collects values in id order.
+     * @param afterKey only look at ids greater than this
+     * @param filter the values to keep
+     * @param limit the maximum number of values to return
+     * @return the matching values
+     */
+    List<V> values(int afterKey, Predicate<V> filter, int limit)
+    {
+        AtomicReferenceArray<V> current = slots;
+        List<V> values = new ArrayList<>();
+        for (int key = Math.max(afterKey + 1, 0); key < current.length() && values.size() < limit; key++)
+        {
+            V value = current.get(key);
+            if (value != null && filter.test(value))
+                values.add(value);
+        }
+        return values;
+    }
+
+    List<V> values()
+    {
+        return values(0, value -> true, Integer.MAX_VALUE);
+    }
+
+    private void ensureCapacity(int key)
+    {
+        if (key < 0)
+            throw new IllegalArgumentException("Negative id " + key);
+
+        AtomicReferenceArray<V> current = slots;
+        if (key < current.length())
+            return;
+
+        int length = current.length();
+        while (length <= key)
+        {
+            length *= 2;
+        }
+        AtomicReferenceArray<V> grown = new AtomicReferenceArray<>(length);
+        for (int i = 0; i < current.length(); i++)
+        {
+            grown.set(i, current.get(i));
+        }
+        slots = grown;
+    }
+}
@@ -1,5 +1,6 @@
 package org.yearup.data.mysql;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.yearup.data.CategoryDao;
 import org.yearup.models.Category;
@@ -9,11 +10,11 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
 
 
 @Component
+@Profile("!memory")
 public class MySqlCategoryDao extends MySqlDaoBase implements CategoryDao
 {
     public MySqlCategoryDao(DataSource dataSource)
@@ -28,21 +29,17 @@ public class MySqlCategoryDao extends MySqlDaoBase implements CategoryDao
     @Override
     public List<Category> getAllCategories()
     {
-        List<Category> categories = new ArrayList<>();
         String getAllCategories= "SELECT * FROM categories";
-        try (Connection connection = getConnection();
+        try (Connection connection = getReadConnection();
         PreparedStatement statement= connection.prepareStatement(getAllCategories);
         ResultSet resultSet = statement.executeQuery())
         {
-            while(resultSet.next()){
-                categories.add(mapRow(resultSet));
-            }
+            return RowMappers.CATEGORY.mapAll(resultSet);
         }
         catch (SQLException e)
         {
             throw new RuntimeException(e);
         }
-        return categories;
     }
 
     /**
@@ -54,24 +51,20 @@ public class MySqlCategoryDao extends MySqlDaoBase implements CategoryDao
     public Category getById(int categoryId)
     {
         String sql = "SELECT * FROM categories WHERE category_id = ?";
-        try (Connection connection = getConnection();
+        try (Connection connection = getReadConnection();
              PreparedStatement statement = connection.prepareStatement(sql))
         {
             statement.setInt(1, categoryId);
 
             try (ResultSet row = statement.executeQuery())
             {
-                if (row.next())
-                {
-                    return mapRow(row);
-                }
+                return RowMappers.CATEGORY.mapFirst(row);
             }
         }
         catch (SQLException e)
         {
             throw new RuntimeException(e);
         }
-        return null;
     }
 
     /**
@@ -101,7 +94,7 @@ public class MySqlCategoryDao extends MySqlDaoBase implements CategoryDao
                 {
                     if (generatedKeys.next()) {
                         int categoryId = generatedKeys.getInt(1);
-                        return getById(categoryId);
+                        return new Category(categoryId, category.getName(), category.getDescription());
                     }
                 }
             }
@@ -163,27 +156,4 @@ public class MySqlCategoryDao extends MySqlDaoBase implements CategoryDao
             throw new RuntimeException(e);
         }
     }
-
-    /**
-     * Maps a row from the result set to a Category object.
-     * @param row the result set row
-     * @return the Category object
-     * @throws SQLException if something goes wrong
-     */
-    private Category mapRow(ResultSet row) throws SQLException
-    {
-        int categoryId = row.getInt("category_id");
-        String name = row.getString("name");
-        String description = row.getString("description");
-
-        Category category = new Category()
-        {{
-            setCategoryId(categoryId);
-            setName(name);
-            setDescription(description);
-        }};
-
-        return category;
-    }
-
 }
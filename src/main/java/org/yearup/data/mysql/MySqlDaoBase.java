@@ -1,8 +1,14 @@
 package org.yearup.data.mysql;
 
+import org.yearup.data.Deadline;
+import org.yearup.data.routing.ReadWriteRoutingDataSource;
+
 import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
 
 public abstract class MySqlDaoBase
 {
@@ -13,8 +19,65 @@ public abstract class MySqlDaoBase
         this.dataSource = dataSource;
     }
 
+    /**
+     * Gets a connection, reusing the one bound to the current unit of work if there is one.
+     * Closing it is always safe; a bound connection is only released when the unit ends.
+     */
     protected Connection getConnection() throws SQLException
     {
-        return dataSource.getConnection();
+        Deadline.check();
+        Connection bound = MySqlUnitOfWork.currentConnection(dataSource);
+        return withDeadline(bound != null ? bound : dataSource.getConnection());
+    }
+
+    /**
+     * Gets a connection for a read-only query. Inside a unit of work this is the bound connection;
+     * otherwise a routing data source may serve it from a replica.
+     */
+    protected Connection getReadConnection() throws SQLException
+    {
+        Deadline.check();
+        Connection bound = MySqlUnitOfWork.currentConnection(dataSource);
+        if (bound != null)
+            return withDeadline(bound);
+        if (dataSource instanceof ReadWriteRoutingDataSource routing)
+            return withDeadline(routing.getReadConnection());
+
+        return withDeadline(dataSource.getConnection());
+    }
+
+    /**
+     * Gives every statement prepared on the connection the time left before the request
+     * deadline as its query timeout. Statements made outside a request get no timeout, which
+     * also clears any timeout left on a pooled statement by an earlier request.
+     */
+    private static Connection withDeadline(Connection target)
+    {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result;
+                    try
+                    {
+                        result = method.invoke(target, args);
+                    }
+                    catch (InvocationTargetException e)
+                    {
+                        throw e.getCause();
+                    }
+
+                    if (result instanceof Statement statement)
+                    {
+                        try
+                        {
+                            statement.setQueryTimeout(Deadline.queryTimeoutSeconds());
+                        }
+                        catch (SQLException | RuntimeException e)
+                        {
+                            statement.close();
+                            throw e;
+                        }
+                    }
+                    return result;
+                });
     }
 }
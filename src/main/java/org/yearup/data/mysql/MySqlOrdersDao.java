@@ -1,41 +1,48 @@
 package org.yearup.data.mysql;
 
 import org.springframework.stereotype.Component;
+import org.yearup.data.EmptyCartException;
 import org.yearup.data.OrdersDao;
 import org.yearup.data.ProfileDao;
-import org.yearup.data.ShoppingCartDao;
 import org.yearup.models.Order;
+import org.yearup.models.OrderLineItem;
 import org.yearup.models.Profile;
-import org.yearup.models.ShoppingCart;
-import org.yearup.models.ShoppingCartItem;
 
 import javax.sql.DataSource;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
+@org.springframework.context.annotation.Profile("!memory")
 public class MySqlOrdersDao extends MySqlDaoBase implements OrdersDao {
 
     private ProfileDao profileDao;
-    private ShoppingCartDao shoppingCartDao;
 
 
-    public MySqlOrdersDao(DataSource dataSource, ProfileDao profileDao, ShoppingCartDao shoppingCartDao) {
+    public MySqlOrdersDao(DataSource dataSource, ProfileDao profileDao) {
         super(dataSource);
         this.profileDao = profileDao;
-        this.shoppingCartDao = shoppingCartDao;
     }
 
     /**
      * Creates an order from the user's cart. Uses profile for shipping address,
-     * saves each cart item as a line item, then clears the cart.
+     * saves the cart items as line items in a single batch, then removes them from the cart.
+     * The order, its line items and the cart delete are committed together on
+     * one connection, so a failure part way through leaves nothing behind.
+     * <p>
+     * The order is built from the cart rows read with SELECT ... FOR UPDATE, at their locked
+     * quantities and the products' current prices, and exactly those rows are deleted. A
+     * concurrent add either lands before the lock and is ordered, or waits and stays in the
+     * cart; of two checkouts of the same cart, the second finds it empty.
      * @param userId the user id
      * @return the new order
+     * @throws EmptyCartException if there is nothing in the cart to order
      */
     @Override
     public Order create(int userId) {
-        ShoppingCart shoppingCart = shoppingCartDao.getByUserId(userId);
         Profile profile = profileDao.getProfile(userId);
 
         String orderQuery =
@@ -50,36 +57,74 @@ public class MySqlOrdersDao extends MySqlDaoBase implements OrdersDao {
                 VALUES (?, ?, ?, ?, ?)
                 """;
 
-        try (Connection connection = getConnection();
-             PreparedStatement orderStatement = connection.prepareStatement(orderQuery, Statement.RETURN_GENERATED_KEYS)) {
+        // the price comes from a subquery rather than a join, so only the cart rows are locked, not the products
+        String lockCartQuery =
+                """
+                SELECT sc.product_id, sc.quantity,
+                       (SELECT p.price FROM products p WHERE p.product_id = sc.product_id) AS price
+                FROM shopping_cart sc
+                WHERE sc.user_id = ?
+                FOR UPDATE
+                """;
 
-            LocalDateTime orderTime = LocalDateTime.now();
+        String deleteCartItemQuery = "DELETE FROM shopping_cart WHERE user_id = ? AND product_id = ?";
 
-            orderStatement.setInt(1, userId);
-            orderStatement.setTimestamp(2, Timestamp.valueOf(orderTime));
-            orderStatement.setString(3, profile.getAddress());
-            orderStatement.setString(4, profile.getCity());
-            orderStatement.setString(5, profile.getState());
-            orderStatement.setString(6, profile.getZip());
-            orderStatement.setBigDecimal(7, BigDecimal.ZERO);
+        try (Connection connection = getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
 
-            orderStatement.executeUpdate();
+            try {
+                List<OrderLineItem> items = lockCart(connection, lockCartQuery, userId);
+                if (items.isEmpty()) {
+                    throw new EmptyCartException(userId);
+                }
+
+                LocalDateTime orderTime = LocalDateTime.now();
+                int orderId;
+
+                try (PreparedStatement orderStatement = connection.prepareStatement(orderQuery, Statement.RETURN_GENERATED_KEYS)) {
+                    orderStatement.setInt(1, userId);
+                    orderStatement.setTimestamp(2, Timestamp.valueOf(orderTime));
+                    orderStatement.setString(3, profile.getAddress());
+                    orderStatement.setString(4, profile.getCity());
+                    orderStatement.setString(5, profile.getState());
+                    orderStatement.setString(6, profile.getZip());
+                    orderStatement.setBigDecimal(7, BigDecimal.ZERO);
+
+                    orderStatement.executeUpdate();
+
+                    try (ResultSet generatedKeys = orderStatement.getGeneratedKeys()) {
+                        if (!generatedKeys.next()) {
+                            throw new SQLException("Failed to create order");
+                        }
+                        orderId = generatedKeys.getInt(1);
+                    }
+                }
 
-            ResultSet generatedKeys = orderStatement.getGeneratedKeys();
-            if (generatedKeys.next()) {
-                int orderId = generatedKeys.getInt(1);
                 try (PreparedStatement lineStatement = connection.prepareStatement(orderLineItemQuery)) {
-                    for (ShoppingCartItem item : shoppingCart.getItems().values()) {
+                    for (OrderLineItem item : items) {
                         lineStatement.setInt(1, orderId);
                         lineStatement.setInt(2, item.getProductId());
-                        lineStatement.setBigDecimal(3, item.getProduct().getPrice());
+                        lineStatement.setBigDecimal(3, item.getSalesPrice());
                         lineStatement.setInt(4, item.getQuantity());
-                        lineStatement.setBigDecimal(5, item.getDiscountPercent());
+                        lineStatement.setBigDecimal(5, item.getDiscount());
+
+                        lineStatement.addBatch();
+                    }
+                    lineStatement.executeBatch();
+                }
 
-                        lineStatement.executeUpdate();
+                try (PreparedStatement deleteStatement = connection.prepareStatement(deleteCartItemQuery)) {
+                    for (OrderLineItem item : items) {
+                        deleteStatement.setInt(1, userId);
+                        deleteStatement.setInt(2, item.getProductId());
+
+                        deleteStatement.addBatch();
                     }
+                    deleteStatement.executeBatch();
                 }
-                shoppingCartDao.deleteCart(userId);
+
+                connection.commit();
 
                 return new Order(
                         orderId,
@@ -91,11 +136,32 @@ public class MySqlOrdersDao extends MySqlDaoBase implements OrdersDao {
                         profile.getZip(),
                         BigDecimal.ZERO
                         );
-            }else{
-                throw new RuntimeException("Failed to create order");
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
             }
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Locks the user's cart rows until the transaction ends.
+     * @return a line item, without an order yet, for each locked row
+     */
+    private static List<OrderLineItem> lockCart(Connection connection, String sql, int userId) throws SQLException {
+        List<OrderLineItem> items = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, userId);
+            try (ResultSet row = statement.executeQuery()) {
+                while (row.next()) {
+                    items.add(new OrderLineItem(null, null, row.getInt("product_id"), row.getBigDecimal("price"),
+                            row.getInt("quantity"), BigDecimal.ZERO));
+                }
+            }
+        }
+        return items;
+    }
 }
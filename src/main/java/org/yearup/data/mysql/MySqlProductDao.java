@@ -1,119 +1,175 @@
 package org.yearup.data.mysql;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.yearup.models.Product;
 import org.yearup.data.ProductDao;
 
 import javax.sql.DataSource;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Component
+@Profile("!memory")
 public class MySqlProductDao extends MySqlDaoBase implements ProductDao
 {
+    private static final PartialUpdate<Product> PATCH = new PartialUpdate<Product>("products", "product_id", PATCHABLE)
+            .column("name", "name", Product::getName)
+            .column("price", "price", Product::getPrice)
+            .column("categoryId", "category_id", Product::getCategoryId)
+            .column("description", "description", Product::getDescription)
+            .column("subCategory", "subcategory", Product::getSubCategory)
+            .column("stock", "stock", Product::getStock)
+            .column("featured", "featured", Product::isFeatured)
+            .column("imageUrl", "image_url", Product::getImageUrl);
+
     public MySqlProductDao(DataSource dataSource)
     {
         super(dataSource);
     }
 
+    /**
+     * Gets one page of search results in product id order.
+     * @param afterProductId the last product id of the previous page, or null for the first page
+     * @param limit the maximum number of products to return
+     * @return the products with an id greater than afterProductId
+     */
     @Override
-    public List<Product> search(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String subCategory)
+    public List<Product> search(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String subCategory, Integer afterProductId, int limit)
     {
-        List<Product> products = new ArrayList<>();
-
-        String sql = """
-                SELECT * FROM products
-                WHERE (category_id = ? OR ? = -1)
-                   AND (price >= ? OR ? = -1)
-                   AND (price <= ? or ? = -1)
-                   AND (subcategory = ? OR ? = '')
-                """;
+        return query(searchQuery(categoryId, minPrice, maxPrice, subCategory)
+                .where("product_id > ?", afterProductId)
+                .orderBy("product_id")
+                .limit(limit));
+    }
 
-        categoryId = categoryId == null ? -1 : categoryId;
-        minPrice = minPrice == null ? new BigDecimal("-1") : minPrice;
-        maxPrice = maxPrice == null ? new BigDecimal("-1") : maxPrice;
-        subCategory = subCategory == null ? "" : subCategory;
+    /**
+     * Streams search results to the action one row at a time without building a list,
+     * for exports that are too large to hold in memory.
+     * @param limit the maximum number of products to stream
+     * @param action called for each matching product, in product id order
+     */
+    @Override
+    public void searchEach(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String subCategory, int limit, Consumer<Product> action)
+    {
+        QueryBuilder query = searchQuery(categoryId, minPrice, maxPrice, subCategory)
+                .orderBy("product_id")
+                .limit(limit);
 
-        try (Connection connection = getConnection();
-             PreparedStatement statement = connection.prepareStatement(sql))
+        try (Connection connection = getReadConnection();
+             PreparedStatement statement = query.prepareStreaming(connection);
+             ResultSet row = statement.executeQuery())
         {
-            statement.setInt(1, categoryId);
-            statement.setInt(2, categoryId);
-            statement.setBigDecimal(3, minPrice);
-            statement.setBigDecimal(4, minPrice);
-            statement.setBigDecimal(5, maxPrice);
-            statement.setBigDecimal(6, maxPrice);
-            statement.setString(7, subCategory);
-            statement.setString(8, subCategory);
-
-            try(ResultSet row = statement.executeQuery()){
-                while (row.next())
-                {
-                    Product product = mapRow(row);
-                    products.add(product);
-                }
+            RowMapper.Bound<Product> mapper = null;
+            while (row.next())
+            {
+                if (mapper == null)
+                    mapper = RowMappers.PRODUCT.bind(row);
+                action.accept(mapper.map(row));
             }
         }
         catch (SQLException e)
         {
             throw new RuntimeException(e);
         }
-        return products;
     }
 
+    /**
+     * Gets one page of a category's products in product id order.
+     * @param afterProductId the last product id of the previous page, or null for the first page
+     * @param limit the maximum number of products to return
+     * @return the products with an id greater than afterProductId
+     */
     @Override
-    public List<Product> listByCategoryId(int categoryId)
+    public List<Product> listByCategoryId(int categoryId, Integer afterProductId, int limit)
     {
-        List<Product> products = new ArrayList<>();
+        return query(new QueryBuilder("SELECT * FROM products")
+                .where("category_id = ?", categoryId)
+                .where("product_id > ?", afterProductId)
+                .orderBy("product_id")
+                .limit(limit));
+    }
 
-        String sql = "SELECT * FROM products " +
-                    " WHERE category_id = ? ";
+    private static QueryBuilder searchQuery(Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice, String subCategory)
+    {
+        return new QueryBuilder("SELECT * FROM products")
+                .where("category_id = ?", categoryId)
+                .where("price >= ?", minPrice)
+                .where("price <= ?", maxPrice)
+                .where("subcategory = ?", subCategory == null || subCategory.isEmpty() ? null : subCategory);
+    }
 
-        try (Connection connection = getConnection())
+    private List<Product> query(QueryBuilder query)
+    {
+        try (Connection connection = getReadConnection();
+             PreparedStatement statement = query.prepare(connection);
+             ResultSet row = statement.executeQuery())
         {
-            PreparedStatement statement = connection.prepareStatement(sql);
-            statement.setInt(1, categoryId);
+            return RowMappers.PRODUCT.mapAll(row);
+        }
+        catch (SQLException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
 
-            ResultSet row = statement.executeQuery();
+    @Override
+    public Product getById(int productId)
+    {
+        String sql = "SELECT * FROM products WHERE product_id = ?";
+        try (Connection connection = getReadConnection();
+             PreparedStatement statement = connection.prepareStatement(sql))
+        {
+            statement.setInt(1, productId);
 
-            while (row.next())
+            try (ResultSet row = statement.executeQuery())
             {
-                Product product = mapRow(row);
-                products.add(product);
+                return RowMappers.PRODUCT.mapFirst(row);
             }
         }
         catch (SQLException e)
         {
             throw new RuntimeException(e);
         }
-
-        return products;
     }
 
-
     @Override
-    public Product getById(int productId)
+    public List<Product> getByIds(Collection<Integer> productIds)
     {
-        String sql = "SELECT * FROM products WHERE product_id = ?";
-        try (Connection connection = getConnection())
+        if (productIds.isEmpty())
+            return new ArrayList<>();
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM products WHERE product_id IN (");
+        for (int i = 0; i < productIds.size(); i++)
         {
-            PreparedStatement statement = connection.prepareStatement(sql);
-            statement.setInt(1, productId);
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
 
-            ResultSet row = statement.executeQuery();
+        try (Connection connection = getReadConnection();
+             PreparedStatement statement = connection.prepareStatement(sql.toString()))
+        {
+            int index = 1;
+            for (int productId : productIds)
+            {
+                statement.setInt(index++, productId);
+            }
 
-            if (row.next())
+            try (ResultSet row = statement.executeQuery())
             {
-                return mapRow(row);
+                return RowMappers.PRODUCT.mapAll(row);
             }
         }
         catch (SQLException e)
         {
             throw new RuntimeException(e);
         }
-        return null;
     }
 
     @Override
@@ -123,9 +179,9 @@ public class MySqlProductDao extends MySqlDaoBase implements ProductDao
         String sql = "INSERT INTO products(name, price, category_id, description, subcategory, image_url, stock, featured) " +
                 " VALUES (?, ?, ?, ?, ?, ?, ?, ?);";
 
-        try (Connection connection = getConnection())
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS))
         {
-            PreparedStatement statement = connection.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
             statement.setString(1, product.getName());
             statement.setBigDecimal(2, product.getPrice());
             statement.setInt(3, product.getCategoryId());
@@ -139,14 +195,21 @@ public class MySqlProductDao extends MySqlDaoBase implements ProductDao
 
             if (rowsAffected > 0) {
                 // Retrieve the generated keys
-                ResultSet generatedKeys = statement.getGeneratedKeys();
-
-                if (generatedKeys.next()) {
-                    // Retrieve the auto-incremented ID
-                    int orderId = generatedKeys.getInt(1);
-
-                    // get the newly inserted category
-                    return getById(orderId);
+                try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        // build the row from what we inserted instead of reading it back;
+                        // the price is rounded the way the DECIMAL(10, 2) column stores it
+                        return new Product(
+                                generatedKeys.getInt(1),
+                                product.getName(),
+                                product.getPrice() == null ? null : product.getPrice().setScale(2, RoundingMode.HALF_UP),
+                                product.getCategoryId(),
+                                product.getDescription(),
+                                product.getSubCategory(),
+                                product.getStock(),
+                                product.isFeatured(),
+                                product.getImageUrl());
+                    }
                 }
             }
         }
@@ -171,9 +234,9 @@ public class MySqlProductDao extends MySqlDaoBase implements ProductDao
                 "   , featured = ? " +
                 " WHERE product_id = ?;";
 
-        try (Connection connection = getConnection())
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql))
         {
-            PreparedStatement statement = connection.prepareStatement(sql);
             statement.setString(1, product.getName());
             statement.setBigDecimal(2, product.getPrice());
             statement.setInt(3, product.getCategoryId());
@@ -192,6 +255,30 @@ public class MySqlProductDao extends MySqlDaoBase implements ProductDao
         }
     }
 
+    /**
+     * Updates only the columns for the given fields.
+     * @param productId the product to update
+     * @param changes holds the new values
+     * @param fields the product properties to write, e.g. "stock"
+     * @return false if there is no such product
+     * @throws IllegalArgumentException if fields is empty or names something that can't be updated
+     */
+    @Override
+    public boolean patch(int productId, Product changes, Set<String> fields)
+    {
+        PATCH.validate(fields);
+
+        try (Connection connection = getConnection();
+             PreparedStatement statement = PATCH.prepare(connection, changes, fields, productId))
+        {
+            return statement.executeUpdate() > 0;
+        }
+        catch (SQLException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public void delete(int productId)
     {
@@ -199,9 +286,9 @@ public class MySqlProductDao extends MySqlDaoBase implements ProductDao
         String sql = "DELETE FROM products " +
                 " WHERE product_id = ?;";
 
-        try (Connection connection = getConnection())
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql))
         {
-            PreparedStatement statement = connection.prepareStatement(sql);
             statement.setInt(1, productId);
 
             statement.executeUpdate();
@@ -211,19 +298,4 @@ public class MySqlProductDao extends MySqlDaoBase implements ProductDao
             throw new RuntimeException(e);
         }
     }
-
-    protected static Product mapRow(ResultSet row) throws SQLException
-    {
-        int productId = row.getInt("product_id");
-        String name = row.getString("name");
-        BigDecimal price = row.getBigDecimal("price");
-        int categoryId = row.getInt("category_id");
-        String description = row.getString("description");
-        String subCategory = row.getString("subcategory");
-        int stock = row.getInt("stock");
-        boolean isFeatured = row.getBoolean("featured");
-        String imageUrl = row.getString("image_url");
-
-        return new Product(productId, name, price, categoryId, description, subCategory, stock, isFeatured, imageUrl);
-    }
 }
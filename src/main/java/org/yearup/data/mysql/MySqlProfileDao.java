@@ -6,10 +6,22 @@ import org.yearup.data.ProfileDao;
 
 import javax.sql.DataSource;
 import java.sql.*;
+import java.util.Set;
 
 @Component
+@org.springframework.context.annotation.Profile("!memory")
 public class MySqlProfileDao extends MySqlDaoBase implements ProfileDao {
 
+    private static final PartialUpdate<Profile> PATCH = new PartialUpdate<Profile>("profiles", "user_id", PATCHABLE)
+            .column("firstName", "first_name", Profile::getFirstName)
+            .column("lastName", "last_name", Profile::getLastName)
+            .column("phone", "phone", Profile::getPhone)
+            .column("email", "email", Profile::getEmail)
+            .column("address", "address", Profile::getAddress)
+            .column("city", "city", Profile::getCity)
+            .column("state", "state", Profile::getState)
+            .column("zip", "zip", Profile::getZip);
+
     /**
      * @param dataSource connection to database
      */
@@ -28,23 +40,12 @@ public class MySqlProfileDao extends MySqlDaoBase implements ProfileDao {
                 SELECT * FROM profiles
                 WHERE user_id = ?
                 """;
-        try (Connection connection = getConnection();
+        try (Connection connection = getReadConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
             preparedStatement.setInt(1, userId);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                if (resultSet.next()) {
-                    return new Profile(userId,
-                            resultSet.getString(2),
-                            resultSet.getString(3),
-                            resultSet.getString(4),
-                            resultSet.getString(5),
-                            resultSet.getString(6),
-                            resultSet.getString(7),
-                            resultSet.getString(8),
-                            resultSet.getString(9));
-                }
-                return null;
+                return RowMappers.PROFILE.mapFirst(resultSet);
             }
         } catch (SQLException e) {
             throw new RuntimeException(e);
@@ -61,8 +62,8 @@ public class MySqlProfileDao extends MySqlDaoBase implements ProfileDao {
         String sql = "INSERT INTO profiles (user_id, first_name, last_name, phone, email, address, city, state, zip) " +
                 " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-        try (Connection connection = getConnection()) {
-            PreparedStatement ps = connection.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
             ps.setInt(1, profile.getUserId());
             ps.setString(2, profile.getFirstName());
             ps.setString(3, profile.getLastName());
@@ -114,4 +115,23 @@ public class MySqlProfileDao extends MySqlDaoBase implements ProfileDao {
         }
     }
 
+    /**
+     * Updates only the columns for the given fields.
+     * @param userId the user whose profile to update
+     * @param changes holds the new values
+     * @param fields the profile properties to write, e.g. "phone"
+     * @return false if the user has no profile
+     * @throws IllegalArgumentException if fields is empty or names something that can't be updated
+     */
+    @Override
+    public boolean patch(int userId, Profile changes, Set<String> fields) {
+        PATCH.validate(fields);
+
+        try (Connection connection = getConnection();
+             PreparedStatement preparedStatement = PATCH.prepare(connection, changes, fields, userId)) {
+            return preparedStatement.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
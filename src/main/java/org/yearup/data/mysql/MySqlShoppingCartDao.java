@@ -1,9 +1,8 @@
 package org.yearup.data.mysql;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import org.yearup.data.ProductDao;
 import org.yearup.data.ShoppingCartDao;
-import org.yearup.models.Product;
 import org.yearup.models.ShoppingCart;
 import org.yearup.models.ShoppingCartItem;
 
@@ -14,30 +13,33 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 
 @Component
+@Profile("!memory")
 public class MySqlShoppingCartDao extends MySqlDaoBase implements ShoppingCartDao {
 
-    private ProductDao productDao;
-
-    public MySqlShoppingCartDao(DataSource dataSource, ProductDao productDao) {
+    public MySqlShoppingCartDao(DataSource dataSource) {
         super(dataSource);
-        this.productDao = productDao;
     }
 
     /**
-     * Gets the cart for a user.
+     * Gets the cart for a user. Products are joined in so the whole cart
+     * loads in one round trip.
      * @param userId the user id
      * @return the cart with all items
      */
     @Override
     public ShoppingCart getByUserId(int userId) {
         ShoppingCart shoppingCart = new ShoppingCart();
-        String sql = "SELECT * FROM shopping_cart WHERE user_id = ?";
+        String sql = """
+                SELECT p.*, sc.quantity
+                FROM shopping_cart sc
+                JOIN products p ON p.product_id = sc.product_id
+                WHERE sc.user_id = ?
+                """;
         try (Connection connection = getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
             preparedStatement.setInt(1, userId);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                while (resultSet.next()) {
-                    ShoppingCartItem item = mapRow(resultSet);
+                for (ShoppingCartItem item : RowMappers.CART_ITEM.mapAll(resultSet)) {
                     shoppingCart.add(item);
                 }
             }
@@ -49,27 +51,25 @@ public class MySqlShoppingCartDao extends MySqlDaoBase implements ShoppingCartDa
 
     /**
      * Adds a product to cart. If already there, bumps quantity by 1.
+     * Done as a single upsert on the (user_id, product_id) key so concurrent
+     * adds can't lose an increment.
      * @param userId the user id
      * @param productId the product to add
      */
     @Override
     public void addItem(int userId, int productId) {
-        ShoppingCart cart = getByUserId(userId);
-
-        if (cart.contains(productId)) {
-            ShoppingCartItem item = cart.get(productId);
-            int newQuantity = item.getQuantity() + 1;
-            updateQuantity(userId, productId, newQuantity);
-        } else {
-            String sql = "INSERT INTO shopping_cart(user_id, product_id) VALUES (?, ?)";
-            try (Connection connection = getConnection();
-                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
-                preparedStatement.setInt(1, userId);
-                preparedStatement.setInt(2, productId);
-                preparedStatement.executeUpdate();
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
-            }
+        String sql = """
+                INSERT INTO shopping_cart (user_id, product_id, quantity)
+                VALUES (?, ?, 1)
+                ON DUPLICATE KEY UPDATE quantity = quantity + 1
+                """;
+        try (Connection connection = getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setInt(1, userId);
+            preparedStatement.setInt(2, productId);
+            preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
         }
     }
 
@@ -114,22 +114,4 @@ public class MySqlShoppingCartDao extends MySqlDaoBase implements ShoppingCartDa
             throw new RuntimeException(e);
         }
     }
-
-    /**
-     * Maps a row to a ShoppingCartItem.
-     * @param row the result set row
-     * @return the ShoppingCartItem
-     * @throws SQLException if something goes wrong
-     */
-    private ShoppingCartItem mapRow(ResultSet row) throws SQLException {
-        int productId = row.getInt("product_id");
-        int quantity = row.getInt("quantity");
-
-        Product product = productDao.getById(productId);
-
-        ShoppingCartItem item = new ShoppingCartItem();
-        item.setProduct(product);
-        item.setQuantity(quantity);
-        return item;
-    }
 }
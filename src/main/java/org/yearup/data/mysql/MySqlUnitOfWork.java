@@ -0,0 +1,196 @@
+package org.yearup.data.mysql;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.yearup.data.UnitOfWork;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Binds one pooled connection to the current thread for the length of a unit of work.
+ * {@link MySqlDaoBase#getConnection()} hands that connection to every DAO call made inside
+ * the unit, so the calls share one pool checkout and one commit. The connection is only
+ * borrowed when the first DAO call needs it.
+ */
+@Component
+@Profile("!memory")
+public class MySqlUnitOfWork implements UnitOfWork
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MySqlUnitOfWork.class);
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private final DataSource dataSource;
+
+    public MySqlUnitOfWork(DataSource dataSource)
+    {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public <T> T execute(Supplier<T> work)
+    {
+        if (CURRENT.get() != null)
+            return work.get();
+
+        Scope scope = new Scope(dataSource);
+        CURRENT.set(scope);
+        try
+        {
+            T result = work.get();
+            scope.complete();
+            return result;
+        }
+        catch (RuntimeException | Error e)
+        {
+            scope.rollback(e);
+            throw e;
+        }
+        catch (SQLException e)
+        {
+            scope.rollback(e);
+            throw new RuntimeException(e);
+        }
+        finally
+        {
+            CURRENT.remove();
+            scope.release();
+        }
+    }
+
+    /**
+     * @param dataSource the data source the caller would otherwise borrow from
+     * @return the connection bound to the current unit of work, or null if there is none
+     * @throws SQLException if the connection could not be borrowed
+     */
+    static Connection currentConnection(DataSource dataSource) throws SQLException
+    {
+        Scope scope = CURRENT.get();
+        if (scope == null || scope.dataSource != dataSource)
+            return null;
+
+        return scope.connection();
+    }
+
+    private static final class Scope
+    {
+        private final DataSource dataSource;
+        private Connection connection;
+        private Connection handle;
+        private boolean rolledBack;
+
+        private Scope(DataSource dataSource)
+        {
+            this.dataSource = dataSource;
+        }
+
+        private Connection connection() throws SQLException
+        {
+            if (connection == null)
+            {
+                connection = dataSource.getConnection();
+                connection.setAutoCommit(false);
+                handle = unmanaged(connection);
+            }
+            return handle;
+        }
+
+        /**
+         * Wraps the bound connection so DAOs can't close it or commit part of the unit.
+         * A rollback from a DAO rolls the whole unit back and stops it from committing.
+         */
+        private Connection unmanaged(Connection target)
+        {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName())
+                        {
+                            case "close":
+                            case "commit":
+                            case "setAutoCommit":
+                                return null;
+                            case "getAutoCommit":
+                                return false;
+                            case "rollback":
+                                if (args == null)
+                                {
+                                    rolledBack = true;
+                                    target.rollback();
+                                    return null;
+                                }
+                                break;
+                            default:
+                                break;
+                        }
+                        try
+                        {
+                            return method.invoke(target, args);
+                        }
+                        catch (InvocationTargetException e)
+                        {
+                            throw e.getCause();
+                        }
+                    });
+        }
+
+        /**
+         * @throws SQLException if a call inside the unit rolled it back; the work caught that
+         *                      call's failure, but the caller must not see it as committed
+         */
+        private void complete() throws SQLException
+        {
+            if (connection == null)
+                return;
+            if (rolledBack)
+                throw new SQLException("The unit of work was rolled back by one of its calls and was not committed");
+
+            connection.commit();
+        }
+
+        private void rollback(Throwable cause)
+        {
+            if (connection == null)
+                return;
+            try
+            {
+                connection.rollback();
+            }
+            catch (SQLException e)
+            {
+                cause.addSuppressed(e);
+            }
+        }
+
+        private void release()
+        {
+            if (connection == null)
+                return;
+            try
+            {
+                connection.setAutoCommit(true);
+            }
+            catch (SQLException e)
+            {
+                LOG.warn("Could not reset auto-commit on a unit of work connection: {}", e.getMessage());
+            }
+            finally
+            {
+                // a broken connection still has to go back to the pool, which discards it
+                try
+                {
+                    connection.close();
+                }
+                catch (SQLException e)
+                {
+                    LOG.warn("Could not return a unit of work connection to the pool: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -1,45 +1,58 @@
 package org.yearup.data.mysql;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.yearup.data.UserDao;
 import org.yearup.models.User;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 import javax.sql.DataSource;
 import java.sql.*;
-import java.util.ArrayList;
 import java.util.List;
 
 @Component
+@Profile("!memory")
 public class MySqlUserDao extends MySqlDaoBase implements UserDao
 {
+    private final PasswordEncoder passwordEncoder;
+
     @Autowired
-    public MySqlUserDao(DataSource dataSource)
+    public MySqlUserDao(DataSource dataSource, PasswordEncoder passwordEncoder)
     {
         super(dataSource);
+        this.passwordEncoder = passwordEncoder;
     }
 
 
     @Override
     public User create(User newUser)
+    {
+        String hashedPassword = passwordEncoder.encode(newUser.getPassword());
+        return createHashed(new User(0, newUser.getUsername(), hashedPassword, newUser.getRole()));
+    }
+
+    @Override
+    public User createHashed(User newUser)
     {
         String sql = "INSERT INTO users (username, hashed_password, role) VALUES (?, ?, ?)";
-        String hashedPassword = new BCryptPasswordEncoder().encode(newUser.getPassword());
 
-        try (Connection connection = getConnection())
+        try (Connection connection = getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS))
         {
-            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
             ps.setString(1, newUser.getUsername());
-            ps.setString(2, hashedPassword);
+            ps.setString(2, newUser.getPassword());
             ps.setString(3, newUser.getRole());
 
             ps.executeUpdate();
 
-            User user = getByUserName(newUser.getUsername());
-            user.setPassword("");
+            try (ResultSet generatedKeys = ps.getGeneratedKeys())
+            {
+                if (!generatedKeys.next())
+                    throw new SQLException("Failed to create user");
 
-            return user;
+                return new User(generatedKeys.getInt(1), newUser.getUsername(), "", newUser.getRole());
+            }
 
         }
         catch (SQLException e)
@@ -51,51 +64,37 @@ public class MySqlUserDao extends MySqlDaoBase implements UserDao
     @Override
     public List<User> getAll()
     {
-        List<User> users = new ArrayList<>();
-
         String sql = "SELECT * FROM users";
-        try (Connection connection = getConnection())
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet row = statement.executeQuery())
         {
-            PreparedStatement statement = connection.prepareStatement(sql);
-
-            ResultSet row = statement.executeQuery();
-
-            while (row.next())
-            {
-                User user = mapRow(row);
-                users.add(user);
-            }
+            return RowMappers.USER.mapAll(row);
         }
         catch (SQLException e)
         {
             throw new RuntimeException(e);
         }
-
-        return users;
     }
 
     @Override
     public User getUserById(int id)
     {
         String sql = "SELECT * FROM users WHERE user_id = ?";
-        try (Connection connection = getConnection())
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql))
         {
-            PreparedStatement statement = connection.prepareStatement(sql);
             statement.setInt(1, id);
 
-            ResultSet row = statement.executeQuery();
-
-            if(row.next())
+            try (ResultSet row = statement.executeQuery())
             {
-                User user = mapRow(row);
-                return user;
+                return RowMappers.USER.mapFirst(row);
             }
         }
         catch (SQLException e)
         {
             throw new RuntimeException(e);
         }
-        return null;
     }
 
     @Override
@@ -105,17 +104,14 @@ public class MySqlUserDao extends MySqlDaoBase implements UserDao
                 " FROM users " +
                 " WHERE username = ?";
 
-        try (Connection connection = getConnection())
+        try (Connection connection = getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql))
         {
-            PreparedStatement statement = connection.prepareStatement(sql);
             statement.setString(1, username);
 
-            ResultSet row = statement.executeQuery();
-            if(row.next())
+            try (ResultSet row = statement.executeQuery())
             {
-
-                User user = mapRow(row);
-                return user;
+                return RowMappers.USER.mapFirst(row);
             }
         }
         catch (SQLException e)
@@ -145,14 +141,4 @@ public class MySqlUserDao extends MySqlDaoBase implements UserDao
         User user = getByUserName(username);
         return user != null;
     }
-
-    private User mapRow(ResultSet row) throws SQLException
-    {
-        int userId = row.getInt("user_id");
-        String username = row.getString("username");
-        String hashedPassword = row.getString("hashed_password");
-        String role = row.getString("role");
-
-        return new User(userId, username,hashedPassword, role);
-    }
 }
@@ -0,0 +1,113 @@
+package org.yearup.data.mysql;
+
+import org.yearup.data.PatchFields;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Builds an UPDATE that only sets the columns for the fields a client actually sent,
+ * so a stock-only change writes one column instead of rewriting the whole row.
+ * @param <T> the model the new values are read from
+ */
+final class PartialUpdate<T>
+{
+    private final String table;
+    private final String keyColumn;
+    private final PatchFields patchable;
+    private final Map<String, Column<T>> columns = new LinkedHashMap<>();
+
+    private record Column<T>(String name, Function<T, Object> value)
+    {
+    }
+
+    /**
+     * @param table the table to update
+     * @param keyColumn the primary key column
+     * @param patchable the fields a client may send; each needs a column
+     */
+    PartialUpdate(String table, String keyColumn, PatchFields patchable)
+    {
+        this.table = table;
+        this.keyColumn = keyColumn;
+        this.patchable = patchable;
+    }
+
+    /**
+     * Declares a patchable field.
+     * @param field the model property name, as it appears in JSON
+     * @param column the column it is stored in
+     * @param value reads the new value from the model
+     * @return this
+     * @throws IllegalArgumentException if the field is not patchable
+     */
+    PartialUpdate<T> column(String field, String column, Function<T, Object> value)
+    {
+        if (!patchable.contains(field))
+            throw new IllegalArgumentException(field + " is not patchable.");
+
+        columns.put(field, new Column<>(column, value));
+        return this;
+    }
+
+    /**
+     * Prepares the UPDATE for the given fields, in declaration order.
+     * @param connection the connection to prepare on
+     * @param values the model holding the new values
+     * @param fields the fields to write; must not be empty
+     * @param key the primary key of the row to update
+     * @return the prepared statement
+     * @throws IllegalArgumentException if a field is not patchable
+     * @throws SQLException if something goes wrong
+     */
+    PreparedStatement prepare(Connection connection, T values, Set<String> fields, Object key) throws SQLException
+    {
+        validate(fields);
+
+        StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+        List<Object> parameters = new ArrayList<>();
+        for (Map.Entry<String, Column<T>> entry : columns.entrySet())
+        {
+            if (!fields.contains(entry.getKey()))
+                continue;
+
+            if (!parameters.isEmpty())
+                sql.append(", ");
+            sql.append(entry.getValue().name()).append(" = ?");
+            parameters.add(entry.getValue().value().apply(values));
+        }
+        sql.append(" WHERE ").append(keyColumn).append(" = ?");
+        parameters.add(key);
+
+        PreparedStatement statement = connection.prepareStatement(sql.toString());
+        try
+        {
+            for (int i = 0; i < parameters.size(); i++)
+            {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            return statement;
+        }
+        catch (SQLException e)
+        {
+            statement.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param fields the fields a client sent
+     * @throws IllegalArgumentException if there are none or any of them is not patchable
+     */
+    void validate(Set<String> fields)
+    {
+        patchable.validate(fields);
+    }
+}
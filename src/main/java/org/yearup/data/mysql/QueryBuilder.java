@@ -0,0 +1,132 @@
+package org.yearup.data.mysql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds a SELECT whose WHERE clause only contains the predicates that were actually supplied,
+ * so MySQL can pick an index for them instead of scanning through catch-all "OR ? = -1" filters.
+ */
+class QueryBuilder
+{
+    private static final int STREAMING_FETCH_SIZE = 1000;
+
+    private final String select;
+    private final List<String> predicates = new ArrayList<>();
+    private final List<Object> parameters = new ArrayList<>();
+    private String orderBy;
+    private Integer limit;
+
+    QueryBuilder(String select)
+    {
+        this.select = select;
+    }
+
+    /**
+     * Adds a predicate with a single "?" placeholder when the value is not null.
+     * @param predicate the SQL predicate, e.g. "price >= ?"
+     * @param value the value to bind, or null to leave the predicate out
+     * @return this builder
+     */
+    QueryBuilder where(String predicate, Object value)
+    {
+        if (value != null)
+        {
+            predicates.add(predicate);
+            parameters.add(value);
+        }
+        return this;
+    }
+
+    QueryBuilder orderBy(String orderBy)
+    {
+        this.orderBy = orderBy;
+        return this;
+    }
+
+    QueryBuilder limit(int limit)
+    {
+        this.limit = limit;
+        return this;
+    }
+
+    String toSql()
+    {
+        StringBuilder sql = new StringBuilder(select);
+        if (!predicates.isEmpty())
+            sql.append(" WHERE ").append(String.join(" AND ", predicates));
+        if (orderBy != null)
+            sql.append(" ORDER BY ").append(orderBy);
+        if (limit != null)
+            sql.append(" LIMIT ?");
+
+        return sql.toString();
+    }
+
+    List<Object> getParameters()
+    {
+        if (limit == null)
+            return parameters;
+
+        List<Object> all = new ArrayList<>(parameters);
+        all.add(limit);
+        return all;
+    }
+
+    /**
+     * Prepares the statement and binds the supplied values in order.
+     * @param connection the connection to prepare on
+     * @return the prepared statement
+     * @throws SQLException if something goes wrong
+     */
+    PreparedStatement prepare(Connection connection) throws SQLException
+    {
+        return bind(connection.prepareStatement(toSql()));
+    }
+
+    /**
+     * Prepares a forward-only, read-only statement that Connector/J streams row by row
+     * instead of buffering the whole result set in memory. Other drivers get a plain
+     * fetch size hint, since Integer.MIN_VALUE only means "stream" to MySQL.
+     * @param connection the connection to prepare on
+     * @return the prepared statement
+     * @throws SQLException if something goes wrong
+     */
+    PreparedStatement prepareStreaming(Connection connection) throws SQLException
+    {
+        int fetchSize = "MySQL".equals(connection.getMetaData().getDatabaseProductName()) ? Integer.MIN_VALUE : STREAMING_FETCH_SIZE;
+        PreparedStatement statement = connection.prepareStatement(toSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try
+        {
+            statement.setFetchSize(fetchSize);
+        }
+        catch (SQLException e)
+        {
+            statement.close();
+            throw e;
+        }
+        return bind(statement);
+    }
+
+    private PreparedStatement bind(PreparedStatement statement) throws SQLException
+    {
+        try
+        {
+            List<Object> values = getParameters();
+            for (int i = 0; i < values.size(); i++)
+            {
+                statement.setObject(i + 1, values.get(i));
+            }
+            return statement;
+        }
+        catch (SQLException e)
+        {
+            statement.close();
+            throw e;
+        }
+    }
+}
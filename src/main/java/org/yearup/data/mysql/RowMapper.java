@@ -0,0 +1,97 @@
+package org.yearup.data.mysql;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps result set rows to a model. The column labels are resolved to indexes once per
+ * ResultSet by {@link #bind(ResultSet)}; every row after that is read by position, with
+ * no label lookups and nothing allocated beyond the model itself.
+ * @param <T> the model type
+ */
+final class RowMapper<T>
+{
+    @FunctionalInterface
+    interface RowReader<T>
+    {
+        T read(ResultSet row, int[] columns) throws SQLException;
+    }
+
+    private final String[] labels;
+    private final RowReader<T> reader;
+
+    /**
+     * @param reader builds the model from a row, reading column i of labels at columns[i]
+     * @param labels the column labels the reader needs, in the order it reads them
+     */
+    RowMapper(RowReader<T> reader, String... labels)
+    {
+        this.labels = labels;
+        this.reader = reader;
+    }
+
+    /**
+     * Resolves the column indexes for this result set.
+     * @param resultSet the result set to read
+     * @return a mapper bound to the result set's columns
+     * @throws SQLException if a column is missing
+     */
+    Bound<T> bind(ResultSet resultSet) throws SQLException
+    {
+        int[] columns = new int[labels.length];
+        for (int i = 0; i < labels.length; i++)
+        {
+            columns[i] = resultSet.findColumn(labels[i]);
+        }
+        return new Bound<>(reader, columns);
+    }
+
+    /**
+     * Maps every remaining row.
+     * @param resultSet the result set to read
+     * @return the models, in row order
+     * @throws SQLException if something goes wrong
+     */
+    List<T> mapAll(ResultSet resultSet) throws SQLException
+    {
+        List<T> models = new ArrayList<>();
+        Bound<T> bound = null;
+        while (resultSet.next())
+        {
+            if (bound == null)
+                bound = bind(resultSet);
+            models.add(bound.map(resultSet));
+        }
+        return models;
+    }
+
+    /**
+     * Maps the next row, if there is one.
+     * @param resultSet the result set to read
+     * @return the model, or null if there are no more rows
+     * @throws SQLException if something goes wrong
+     */
+    T mapFirst(ResultSet resultSet) throws SQLException
+    {
+        return resultSet.next() ? bind(resultSet).map(resultSet) : null;
+    }
+
+    static final class Bound<T>
+    {
+        private final RowReader<T> reader;
+        private final int[] columns;
+
+        private Bound(RowReader<T> reader, int[] columns)
+        {
+            this.reader = reader;
+            this.columns = columns;
+        }
+
+        T map(ResultSet row) throws SQLException
+        {
+            return reader.read(row, columns);
+        }
+    }
+}
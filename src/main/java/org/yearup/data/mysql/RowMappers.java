@@ -0,0 +1,76 @@
+package org.yearup.data.mysql;
+
+import org.yearup.models.Category;
+import org.yearup.models.Product;
+import org.yearup.models.Profile;
+import org.yearup.models.ShoppingCartItem;
+import org.yearup.models.User;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * One row mapper per model, shared by all the MySql*Dao classes.
+ */
+final class RowMappers
+{
+    static final RowMapper<Product> PRODUCT = new RowMapper<>(
+            RowMappers::product,
+            "product_id", "name", "price", "category_id", "description", "subcategory", "stock", "featured", "image_url");
+
+    /** A shopping_cart row joined to its product, quantity last. */
+    static final RowMapper<ShoppingCartItem> CART_ITEM = new RowMapper<>(
+            (row, c) -> {
+                ShoppingCartItem item = new ShoppingCartItem();
+                item.setProduct(product(row, c));
+                item.setQuantity(row.getInt(c[9]));
+                return item;
+            },
+            "product_id", "name", "price", "category_id", "description", "subcategory", "stock", "featured", "image_url", "quantity");
+
+    static final RowMapper<Category> CATEGORY = new RowMapper<>(
+            (row, c) -> new Category(
+                    row.getInt(c[0]),
+                    row.getString(c[1]),
+                    row.getString(c[2])),
+            "category_id", "name", "description");
+
+    static final RowMapper<Profile> PROFILE = new RowMapper<>(
+            (row, c) -> new Profile(
+                    row.getInt(c[0]),
+                    row.getString(c[1]),
+                    row.getString(c[2]),
+                    row.getString(c[3]),
+                    row.getString(c[4]),
+                    row.getString(c[5]),
+                    row.getString(c[6]),
+                    row.getString(c[7]),
+                    row.getString(c[8])),
+            "user_id", "first_name", "last_name", "phone", "email", "address", "city", "state", "zip");
+
+    static final RowMapper<User> USER = new RowMapper<>(
+            (row, c) -> new User(
+                    row.getInt(c[0]),
+                    row.getString(c[1]),
+                    row.getString(c[2]),
+                    row.getString(c[3])),
+            "user_id", "username", "hashed_password", "role");
+
+    private RowMappers()
+    {
+    }
+
+    private static Product product(ResultSet row, int[] c) throws SQLException
+    {
+        return new Product(
+                row.getInt(c[0]),
+                row.getString(c[1]),
+                row.getBigDecimal(c[2]),
+                row.getInt(c[3]),
+                row.getString(c[4]),
+                row.getString(c[5]),
+                row.getInt(c[6]),
+                row.getBoolean(c[7]),
+                row.getString(c[8]));
+    }
+}
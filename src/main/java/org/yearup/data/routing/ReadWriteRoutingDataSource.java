@@ -0,0 +1,379 @@
+package org.yearup.data.routing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Sends writes to the primary and reads to the replicas.
+ * getConnection() always returns a primary connection. getReadConnection() round-robins
+ * over the healthy replicas.
+ * A replica that can't be reached (SQLState class 08), or that is further behind the primary
+ * than the allowed lag, is skipped for a cooldown period. Lag is checked at most once per
+ * cooldown period per replica. A replica whose pool is merely busy is passed over for that
+ * one read only. When no replica is usable, reads fall back to the primary.
+ * When a user runs an update on a primary connection, their reads also go to the primary
+ * for a short window afterwards, so they see their own changes before the replicas catch
+ * up. A primary checkout that only reads doesn't pin the user. {@link #onPrimary} does the same for a block of reads on this thread.
+ */
+public class ReadWriteRoutingDataSource implements DataSource
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+    private static final ThreadLocal<Boolean> READS_ON_PRIMARY = new ThreadLocal<>();
+    private static final Set<String> WRITE_METHODS = Set.of("executeUpdate", "executeLargeUpdate", "execute", "executeBatch", "executeLargeBatch");
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration cooldown;
+    private final Duration maxLag;
+    private final ReplicaLag lag;
+    private final Supplier<String> currentUser;
+    private final Ticker ticker;
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param primary the pool for writes
+     * @param replicas the pools for reads
+     * @param readYourWrites how long a user's reads stay on the primary after they write
+     * @param cooldown how long a failed or lagging replica is skipped, and how often lag is checked
+     * @param maxLag how far behind the primary a replica may be and still serve reads
+     * @param currentUser returns the name of the user making the current request, or null
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration readYourWrites, Duration cooldown, Duration maxLag, Supplier<String> currentUser)
+    {
+        this(primary, replicas, readYourWrites, cooldown, maxLag, ReplicaLag.MYSQL, currentUser, Ticker.systemTicker());
+    }
+
+    ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration readYourWrites, Duration cooldown, Duration maxLag, ReplicaLag lag, Supplier<String> currentUser, Ticker ticker)
+    {
+        this.primary = primary;
+        this.cooldown = cooldown;
+        this.maxLag = maxLag;
+        this.lag = lag;
+        this.currentUser = currentUser;
+        this.ticker = ticker;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWrites)
+                .maximumSize(100_000)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Gets a primary connection. If it runs an update, the current user's reads are pinned to
+     * the primary for the read-your-writes window.
+     */
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        String user = currentUser.get();
+        Connection connection = primary.getConnection();
+        return user == null ? connection : markingWrites(connection, user);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException
+    {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Gets a connection for a read-only query. It comes from a healthy replica, or from the
+     * primary if the current user wrote recently, the reads run inside {@link #onPrimary}, or
+     * no replica is usable.
+     * @return a connection from a replica or the primary
+     * @throws SQLException if the primary can't hand out a connection either
+     */
+    public Connection getReadConnection() throws SQLException
+    {
+        if (READS_ON_PRIMARY.get() != null)
+            return primary.getConnection();
+
+        String user = currentUser.get();
+        if (user != null && recentWriters.getIfPresent(user) != null)
+            return primary.getConnection();
+
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(replicas.size(), 1));
+        for (int i = 0; i < replicas.size(); i++)
+        {
+            int index = (start + i) % replicas.size();
+            Replica replica = replicas.get(index);
+            if (!replica.isHealthy())
+                continue;
+
+            Connection connection;
+            try
+            {
+                connection = replica.dataSource.getConnection();
+            }
+            catch (SQLException e)
+            {
+                if (isConnectionFailure(e))
+                {
+                    replica.markDown();
+                    LOG.warn("Replica {} is unavailable for {}: {}", index, cooldown, e.getMessage());
+                }
+                else
+                {
+                    // a busy pool or a borrow timeout says nothing about the replica itself
+                    LOG.debug("Replica {} could not hand out a connection: {}", index, e.getMessage());
+                }
+                continue;
+            }
+
+            boolean caughtUp = false;
+            try
+            {
+                caughtUp = replica.isCaughtUp(index, connection);
+            }
+            finally
+            {
+                // also when the lag check throws, so the replica connection isn't leaked
+                if (!caughtUp)
+                    connection.close();
+            }
+            if (caughtUp)
+                return connection;
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Pins the user's reads to the primary when a statement made on the connection runs an
+     * update or batch. execute() counts as a write, since it can run either.
+     */
+    private Connection markingWrites(Connection target, String user)
+    {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (result instanceof Statement statement && method.getReturnType().isInterface()
+                            && Statement.class.isAssignableFrom(method.getReturnType()))
+                        return markingWrites(statement, method.getReturnType(), user);
+                    return result;
+                });
+    }
+
+    private Object markingWrites(Statement target, Class<?> type, String user)
+    {
+        return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (WRITE_METHODS.contains(method.getName()))
+                        recentWriters.put(user, Boolean.TRUE);
+                    return invoke(target, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable
+    {
+        try
+        {
+            return method.invoke(target, args);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Runs reads that must see the primary's latest data, such as loads that refill a cache,
+     * with every {@link #getReadConnection()} on this thread going to the primary.
+     * @param reads the reads to run
+     * @return what the reads return
+     */
+    public static <T> T onPrimary(Supplier<T> reads)
+    {
+        if (READS_ON_PRIMARY.get() != null)
+            return reads.get();
+
+        READS_ON_PRIMARY.set(Boolean.TRUE);
+        try
+        {
+            return reads.get();
+        }
+        finally
+        {
+            READS_ON_PRIMARY.remove();
+        }
+    }
+
+    /**
+     * Whether the failure is the server or the network rather than the pool: SQLState class 08
+     * anywhere in the cause chain. DBCP reports a failed connect as its own SQLException with
+     * the driver's exception as the cause.
+     */
+    static boolean isConnectionFailure(Throwable e)
+    {
+        for (Throwable cause = e; cause != null; cause = cause.getCause())
+        {
+            if (cause instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08"))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of replicas not currently in their failure cooldown
+     */
+    public int getHealthyReplicaCount()
+    {
+        return (int) replicas.stream().filter(Replica::isHealthy).count();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException
+    {
+        return primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException
+    {
+        primary.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException
+    {
+        primary.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException
+    {
+        return primary.getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException
+    {
+        return primary.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) throws SQLException
+    {
+        return type.isInstance(this) ? type.cast(this) : primary.unwrap(type);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) throws SQLException
+    {
+        return type.isInstance(this) || primary.isWrapperFor(type);
+    }
+
+    /**
+     * How far a replica is behind its primary.
+     */
+    @FunctionalInterface
+    public interface ReplicaLag
+    {
+        /**
+         * Seconds_Behind_Source from SHOW REPLICA STATUS (MySQL 8.0.22 and later). A server that
+         * isn't replicating is not behind; a stopped replication thread reports NULL, which is
+         * treated as too far behind.
+         */
+        ReplicaLag MYSQL = connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet row = statement.executeQuery("SHOW REPLICA STATUS"))
+            {
+                if (!row.next())
+                    return Duration.ZERO;
+
+                long seconds = row.getLong("Seconds_Behind_Source");
+                return row.wasNull() ? null : Duration.ofSeconds(seconds);
+            }
+        };
+
+        /**
+         * @param connection a connection to the replica
+         * @return how far behind the replica is, or null if it doesn't know
+         * @throws SQLException if the replica can't be asked
+         */
+        Duration behind(Connection connection) throws SQLException;
+    }
+
+    private final class Replica
+    {
+        private final DataSource dataSource;
+        private final AtomicLong nextLagCheck;
+        private volatile long downUntil;
+
+        private Replica(DataSource dataSource)
+        {
+            this.dataSource = dataSource;
+            this.downUntil = ticker.read();
+            this.nextLagCheck = new AtomicLong(downUntil);
+        }
+
+        /**
+         * Checks the replica's lag on the connection if a check is due; one thread checks while
+         * the others keep reading from the replica. A replica that is too far behind is marked down.
+         */
+        private boolean isCaughtUp(int index, Connection connection) throws SQLException
+        {
+            long now = ticker.read();
+            long due = nextLagCheck.get();
+            if (now - due < 0 || !nextLagCheck.compareAndSet(due, now + cooldown.toNanos()))
+                return true;
+
+            Duration behind;
+            try
+            {
+                behind = lag.behind(connection);
+            }
+            catch (SQLException e)
+            {
+                if (isConnectionFailure(e))
+                {
+                    markDown();
+                    LOG.warn("Replica {} is unavailable for {}: {}", index, cooldown, e.getMessage());
+                    return false;
+                }
+
+                // usually a missing REPLICATION CLIENT grant; keep reading rather than pile every read onto the primary
+                LOG.warn("Could not check the lag of replica {}: {}", index, e.getMessage());
+                return true;
+            }
+
+            if (behind != null && behind.compareTo(maxLag) <= 0)
+                return true;
+
+            markDown();
+            LOG.warn("Replica {} is {} behind the primary; skipping it for {}", index, behind == null ? "an unknown time" : behind, cooldown);
+            return false;
+        }
+
+        private boolean isHealthy()
+        {
+            return ticker.read() - downUntil >= 0;
+        }
+
+        private void markDown()
+        {
+            downUntil = ticker.read() + cooldown.toNanos();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.yearup.data.timing;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Execution time, rows and pool wait per normalized SQL statement, fed by {@link TimingDataSource}.
+ * Each statement gets its own db.statement timer, db.statement.rows summary and
+ * db.statement.pool.wait timer, tagged with the normalized SQL. Executions slower than
+ * the threshold, and executions that fail, are logged with the types of their bind
+ * parameters, never the values.
+ */
+@Component
+public class StatementStatistics
+{
+    private static final Logger LOG = LoggerFactory.getLogger(StatementStatistics.class);
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+    private final ConcurrentHashMap<String, Statistic> statements = new ConcurrentHashMap<>();
+
+    /**
+     * The registry is injected lazily: meters are only created on the first execution of
+     * each statement, and the DataSource this class is wired into is itself needed to
+     * build the registry.
+     */
+    @Autowired
+    public StatementStatistics(@Lazy MeterRegistry meterRegistry,
+                               @Value("${datasource.slow-query-ms:200}") long slowQueryMillis)
+    {
+        this(meterRegistry, Duration.ofMillis(slowQueryMillis));
+    }
+
+    public StatementStatistics(MeterRegistry meterRegistry, Duration slowThreshold)
+    {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    /**
+     * Collapses whitespace, literals and IN lists so that the same query with different
+     * values or list lengths is counted as one statement.
+     * @param sql the SQL as prepared
+     * @return the normalized SQL
+     */
+    public static String normalize(String sql)
+    {
+        String normalized = WHITESPACE.matcher(sql).replaceAll(" ").trim();
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        return PLACEHOLDER_LIST.matcher(normalized).replaceAll("(?, ...)");
+    }
+
+    /**
+     * @param sql the normalized SQL
+     * @param nanos how long the execute call took
+     * @param poolWaitNanos how long the connection took to borrow, if this was its first statement, else 0
+     * @param parameterShapes the bind parameter types, for the slow-query log
+     * @param failure what the execute call threw, or null if it returned
+     */
+    void recordExecution(String sql, long nanos, long poolWaitNanos, List<String> parameterShapes, Throwable failure)
+    {
+        Statistic statistic = statistic(sql);
+        statistic.executions.increment();
+        if (failure != null)
+            statistic.failures.increment();
+        statistic.totalNanos.add(nanos);
+        statistic.maxNanos.accumulate(nanos);
+        statistic.timer.record(nanos, TimeUnit.NANOSECONDS);
+
+        if (poolWaitNanos > 0)
+        {
+            statistic.poolWaitNanos.add(poolWaitNanos);
+            statistic.poolWaitTimer.record(poolWaitNanos, TimeUnit.NANOSECONDS);
+        }
+
+        if (failure != null)
+            LOG.warn("Failed statement ({} ms): {} parameters {}: {}", TimeUnit.NANOSECONDS.toMillis(nanos), sql, parameterShapes, failure.toString());
+        else if (nanos >= slowThresholdNanos)
+            LOG.warn("Slow statement ({} ms): {} parameters {}", TimeUnit.NANOSECONDS.toMillis(nanos), sql, parameterShapes);
+    }
+
+    /**
+     * @param sql the normalized SQL
+     * @param rows rows fetched by a query or affected by an update
+     */
+    void recordRows(String sql, long rows)
+    {
+        Statistic statistic = statistic(sql);
+        statistic.rows.add(rows);
+        statistic.rowsSummary.record(rows);
+    }
+
+    /**
+     * @param limit how many statements to return
+     * @return the statements with the most total execution time, largest first
+     */
+    public List<StatementSummary> top(int limit)
+    {
+        return statements.entrySet().stream()
+                .map(entry -> entry.getValue().summary(entry.getKey()))
+                .sorted(Comparator.comparingDouble(StatementSummary::totalMillis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private Statistic statistic(String sql)
+    {
+        return statements.computeIfAbsent(sql, this::newStatistic);
+    }
+
+    private Statistic newStatistic(String sql)
+    {
+        Timer timer = Timer.builder("db.statement")
+                .description("Statement execution time")
+                .tag("sql", sql)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        DistributionSummary rows = DistributionSummary.builder("db.statement.rows")
+                .description("Rows fetched or affected per execution")
+                .tag("sql", sql)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Timer poolWait = Timer.builder("db.statement.pool.wait")
+                .description("Pool wait charged to the first statement on each connection")
+                .tag("sql", sql)
+                .register(meterRegistry);
+        return new Statistic(timer, rows, poolWait);
+    }
+
+    private static final class Statistic
+    {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder poolWaitNanos = new LongAdder();
+        private final Timer timer;
+        private final DistributionSummary rowsSummary;
+        private final Timer poolWaitTimer;
+
+        private Statistic(Timer timer, DistributionSummary rowsSummary, Timer poolWaitTimer)
+        {
+            this.timer = timer;
+            this.rowsSummary = rowsSummary;
+            this.poolWaitTimer = poolWaitTimer;
+        }
+
+        private StatementSummary summary(String sql)
+        {
+            long count = executions.sum();
+            long total = totalNanos.sum();
+            return new StatementSummary(sql,
+                    count,
+                    failures.sum(),
+                    millis(total),
+                    count == 0 ? 0 : millis(total) / count,
+                    millis(maxNanos.get()),
+                    rows.sum(),
+                    millis(poolWaitNanos.sum()));
+        }
+
+        private static double millis(long nanos)
+        {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.yearup.data.timing;
+
+/**
+ * Totals for one normalized SQL statement since startup.
+ * @param sql the statement with literals and IN lists collapsed
+ * @param executions how many times it ran
+ * @param failures how many of those runs threw, timeouts included
+ * @param totalMillis time spent executing it
+ * @param meanMillis mean execution time
+ * @param maxMillis slowest execution
+ * @param rows rows fetched or affected
+ * @param poolWaitMillis time spent waiting on the pool for the connections it was the first statement on
+ */
+public record StatementSummary(String sql,
+                               long executions,
+                               long failures,
+                               double totalMillis,
+                               double meanMillis,
+                               double maxMillis,
+                               long rows,
+                               double poolWaitMillis)
+{
+}
@@ -0,0 +1,221 @@
+package org.yearup.data.timing;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Wraps a pool so that every PreparedStatement it hands out reports its execution time,
+ * row count and pool wait to {@link StatementStatistics}. The time getConnection() spends
+ * waiting on the pool is charged to the first statement executed on that connection.
+ * Statements that throw, including ones cancelled by their query timeout, are recorded too.
+ */
+public class TimingDataSource implements DataSource
+{
+    private static final Set<String> EXECUTE_METHODS = Set.of("executeQuery", "executeUpdate", "executeLargeUpdate", "execute", "executeBatch", "executeLargeBatch");
+
+    private final DataSource delegate;
+    private final StatementStatistics statistics;
+
+    public TimingDataSource(DataSource delegate, StatementStatistics statistics)
+    {
+        this.delegate = delegate;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        long start = System.nanoTime();
+        Connection connection = delegate.getConnection();
+        return timed(connection, System.nanoTime() - start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException
+    {
+        long start = System.nanoTime();
+        Connection connection = delegate.getConnection(username, password);
+        return timed(connection, System.nanoTime() - start);
+    }
+
+    private Connection timed(Connection target, long poolWaitNanos)
+    {
+        long[] pendingWait = {poolWaitNanos};
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (method.getName().equals("prepareStatement"))
+                        return timed((PreparedStatement) result, StatementStatistics.normalize((String) args[0]), pendingWait);
+                    return result;
+                });
+    }
+
+    private PreparedStatement timed(PreparedStatement target, String sql, long[] pendingWait)
+    {
+        List<String> shapes = new ArrayList<>();
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index)
+                        shape(shapes, index, name, args[1]);
+                    else if (name.equals("clearParameters"))
+                        shapes.clear();
+
+                    if (args != null || !EXECUTE_METHODS.contains(name))
+                        return invoke(target, method, args);
+
+                    long start = System.nanoTime();
+                    Object result;
+                    Throwable failure = null;
+                    try
+                    {
+                        result = invoke(target, method, null);
+                    }
+                    catch (Throwable e)
+                    {
+                        failure = e;
+                        throw e;
+                    }
+                    finally
+                    {
+                        long elapsed = System.nanoTime() - start;
+                        long poolWait = pendingWait[0];
+                        pendingWait[0] = 0;
+                        statistics.recordExecution(sql, elapsed, poolWait, List.copyOf(shapes), failure);
+                    }
+
+                    if (result instanceof ResultSet resultSet)
+                        return counted(resultSet, sql);
+                    statistics.recordRows(sql, rows(result));
+                    return result;
+                });
+    }
+
+    private ResultSet counted(ResultSet target, String sql)
+    {
+        long[] rows = {0};
+        boolean[] recorded = {false};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    if (method.getName().equals("next") && Boolean.TRUE.equals(result))
+                        rows[0]++;
+
+                    boolean finished = method.getName().equals("close") || (method.getName().equals("next") && Boolean.FALSE.equals(result));
+                    if (finished && !recorded[0])
+                    {
+                        recorded[0] = true;
+                        statistics.recordRows(sql, rows[0]);
+                    }
+                    return result;
+                });
+    }
+
+    private static void shape(List<String> shapes, int index, String setter, Object value)
+    {
+        while (shapes.size() < index)
+        {
+            shapes.add("?");
+        }
+
+        String shape;
+        if (setter.equals("setNull") || value == null)
+            shape = "null";
+        else if (value instanceof String text)
+            shape = "String(" + text.length() + ")";
+        else
+            shape = value.getClass().getSimpleName();
+
+        shapes.set(index - 1, shape);
+    }
+
+    private static long rows(Object result)
+    {
+        if (result instanceof Number count)
+            return Math.max(count.longValue(), 0);
+        if (result instanceof int[] counts)
+        {
+            long total = 0;
+            for (int count : counts)
+            {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        if (result instanceof long[] counts)
+        {
+            long total = 0;
+            for (long count : counts)
+            {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        return 0;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable
+    {
+        try
+        {
+            return method.invoke(target, args);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException
+    {
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException
+    {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException
+    {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException
+    {
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException
+    {
+        return delegate.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) throws SQLException
+    {
+        return type.isInstance(this) ? type.cast(this) : delegate.unwrap(type);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) throws SQLException
+    {
+        return type.isInstance(this) || delegate.isWrapperFor(type);
+    }
+}
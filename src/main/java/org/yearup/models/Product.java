@@ -31,6 +31,12 @@ public class Product
         this.imageUrl = imageUrl;
     }
 
+    public Product(Product product)
+    {
+        this(product.productId, product.name, product.price, product.categoryId, product.description,
+                product.subCategory, product.stock, product.isFeatured, product.imageUrl);
+    }
+
     public int getProductId()
     {
         return productId;
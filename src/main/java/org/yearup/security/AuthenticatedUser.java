@@ -0,0 +1,26 @@
+package org.yearup.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Spring Security user that also carries the numeric user id, so controllers can
+ * resolve the current user without going back to the database.
+ */
+public class AuthenticatedUser extends User {
+
+    private static final long serialVersionUID = 4138297316213485110L;
+
+    private final int userId;
+
+    public AuthenticatedUser(int userId, String username, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.userId = userId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+}
@@ -1,6 +1,7 @@
 package org.yearup.security.jwt;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -13,8 +14,8 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
+import org.yearup.security.AuthenticatedUser;
 
 import java.security.Key;
 import java.util.Arrays;
@@ -29,11 +30,13 @@ public class TokenProvider implements InitializingBean
     private final Logger logger = LoggerFactory.getLogger(TokenProvider.class);
 
     private static final String AUTHORITIES_KEY = "auth";
+    private static final String USER_ID_KEY = "uid";
 
     private final String secret;
     private final long tokenTimeout;
 
     private Key key;
+    private JwtParser parser;
 
 
     public TokenProvider(
@@ -49,6 +52,8 @@ public class TokenProvider implements InitializingBean
     {
         byte[] keyBytes = Decoders.BASE64.decode(secret);
         this.key = Keys.hmacShaKeyFor(keyBytes);
+        // parsers are immutable and thread-safe, so one instance serves every request
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
     public String createToken(Authentication authentication, boolean rememberMe)
@@ -63,41 +68,58 @@ public class TokenProvider implements InitializingBean
         return Jwts.builder()
                 .setSubject(authentication.getName())
                 .claim(AUTHORITIES_KEY, authorities)
+                .claim(USER_ID_KEY, ((AuthenticatedUser) authentication.getPrincipal()).getUserId())
                 .signWith(key, SignatureAlgorithm.HS512)
                 .setExpiration(expirationDate)
                 .compact();
     }
 
+    /**
+     * @param token the token
+     * @return the authentication the token carries, or null if the token is not valid
+     */
     public Authentication getAuthentication(String token)
     {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = parseClaims(token);
+        return claims == null ? null : getAuthentication(claims, token);
+    }
 
+    public Authentication getAuthentication(Claims claims, String token)
+    {
         Collection<? extends GrantedAuthority> authorities =
                 Arrays.stream(claims.get(AUTHORITIES_KEY).toString().split(","))
                         .map(SimpleGrantedAuthority::new)
                         .collect(Collectors.toList());
 
-        User principal = new User(claims.getSubject(), "", authorities);
+        int userId = claims.get(USER_ID_KEY, Integer.class);
+        AuthenticatedUser principal = new AuthenticatedUser(userId, claims.getSubject(), "", authorities);
 
         return new UsernamePasswordAuthenticationToken(principal, token, authorities);
     }
 
     public boolean validateToken(String authToken)
+    {
+        return parseClaims(authToken) != null;
+    }
+
+    /**
+     * Verifies the token signature and expiry and reads its claims in a single parse.
+     * @param authToken the token
+     * @return the claims, or null if the token is not valid
+     */
+    public Claims parseClaims(String authToken)
     {
         try
         {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(authToken);
-            return true;
+            Claims claims = parser.parseClaimsJws(authToken).getBody();
+            // tokens issued before the user id claim was added are treated as expired
+            return claims.get(USER_ID_KEY) != null ? claims : null;
         }
         catch (Exception e)
         {
             logger.info("Token Invalid.");
             logger.trace("Token Invalid trace: {}.", e.toString());
         }
-        return false;
+        return null;
     }
 }
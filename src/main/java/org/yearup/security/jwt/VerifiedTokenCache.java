@@ -0,0 +1,114 @@
+package org.yearup.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers tokens that have already passed signature verification, keyed by a SHA-256 digest
+ * of the token, so repeat requests with the same bearer token skip parsing and HMAC checks.
+ * Each entry expires when its token does.
+ */
+@Component
+public class VerifiedTokenCache
+{
+    private final Cache<ByteBuffer, Entry> cache;
+
+    @Autowired
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${jwt.token-cache.max-size:10000}") long maxSize)
+    {
+        this(maxSize);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+        Gauge.builder("jwt.verified-tokens.hit.ratio", this, c -> c.getStats().hitRate())
+                .description("Share of authenticated requests served without verifying the token")
+                .register(meterRegistry);
+    }
+
+    public VerifiedTokenCache(long maxSize)
+    {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<ByteBuffer, Entry>()
+                {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, Entry entry, long currentTime)
+                    {
+                        long millis = entry.expiresAt - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, Entry entry, long currentTime, long currentDuration)
+                    {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, Entry entry, long currentTime, long currentDuration)
+                    {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param token the bearer token
+     * @return the authentication built when the token was verified, or null if it is not cached
+     */
+    public Authentication get(String token)
+    {
+        Entry entry = cache.getIfPresent(digest(token));
+        return entry == null ? null : entry.authentication;
+    }
+
+    /**
+     * Caches the authentication for a verified token until the token expires.
+     * @param token the bearer token
+     * @param authentication the authentication built from the token
+     * @param expiresAt the token expiration
+     */
+    public void put(String token, Authentication authentication, Date expiresAt)
+    {
+        if (expiresAt == null)
+            return;
+
+        cache.put(digest(token), new Entry(authentication, expiresAt.getTime()));
+    }
+
+    public CacheStats getStats()
+    {
+        return cache.stats();
+    }
+
+    private static ByteBuffer digest(String token)
+    {
+        try
+        {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Entry(Authentication authentication, long expiresAt) {}
+}
@@ -0,0 +1,122 @@
+package org.yearup.configurations;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.dbcp2.DelegatingConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yearup.data.Deadline;
+import org.yearup.data.DeadlineExceededException;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class InstrumentedDataSourceTest
+{
+    private MeterRegistry meterRegistry;
+    private Driver driver;
+    private InstrumentedDataSource dataSource;
+
+    @BeforeEach
+    public void setup() throws SQLException
+    {
+        driver = mock(Driver.class);
+        when(driver.acceptsURL(anyString())).thenReturn(true);
+        when(driver.connect(anyString(), any())).thenAnswer(invocation -> {
+            Connection connection = mock(Connection.class);
+            when(connection.isValid(anyInt())).thenReturn(true);
+            return connection;
+        });
+
+        meterRegistry = new SimpleMeterRegistry();
+        dataSource = new InstrumentedDataSource(meterRegistry, "primary");
+        dataSource.setDriver(driver);
+        dataSource.setUrl("jdbc:test");
+        dataSource.setMinIdle(4);
+        dataSource.setMaxTotal(8);
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException
+    {
+        dataSource.close();
+    }
+
+    @Test
+    public void warmUp_shouldOpenMinIdleConnections() throws SQLException
+    {
+        int opened = dataSource.warmUp();
+
+        assertEquals(4, opened);
+        assertEquals(4, gauge("db.pool.idle"));
+        assertEquals(0, gauge("db.pool.active"));
+    }
+
+    @Test
+    public void getConnection_shouldReportActiveConnectionsAndBorrowTime() throws SQLException
+    {
+        try (Connection ignored = dataSource.getConnection();
+             Connection ignoredToo = dataSource.getConnection())
+        {
+            assertEquals(2, gauge("db.pool.active"));
+            assertEquals(8, gauge("db.pool.max"));
+            assertEquals(0, gauge("db.pool.waiting"));
+        }
+
+        assertEquals(2, meterRegistry.get("db.pool.borrow").timer().count());
+        assertEquals(0, gauge("db.pool.active"));
+        assertEquals(2, gauge("db.pool.idle"));
+    }
+
+    @Test
+    public void getConnection_shouldStopWaiting_atTheRequestDeadline() throws SQLException
+    {
+        dataSource.setMaxTotal(1);
+        dataSource.setMaxWaitMillis(10_000);
+
+        try (Connection ignored = dataSource.getConnection();
+             Deadline.Scope deadline = Deadline.start(Duration.ofMillis(200)))
+        {
+            long start = System.nanoTime();
+            assertThrows(DeadlineExceededException.class, dataSource::getConnection);
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000);
+        }
+    }
+
+    @Test
+    public void getConnection_shouldGuardConnections_borrowedUnderADeadline() throws SQLException
+    {
+        dataSource.setMaxTotal(1);
+        dataSource.setMaxWaitMillis(10_000);
+
+        try (Deadline.Scope deadline = Deadline.start(Duration.ofSeconds(1)))
+        {
+            // act: close twice, with the pooled connection lent out again in between
+            Connection first = dataSource.getConnection();
+            first.close();
+            Connection second = dataSource.getConnection();
+            first.close();
+
+            // assert
+            assertTrue(first.isClosed());
+            assertFalse(second.isClosed(), "Because the second close must not return someone else's connection.");
+            assertEquals(1, gauge("db.pool.active"));
+            assertNull(((DelegatingConnection<?>) second).getDelegate(), "Because callers can't reach the pooled connection.");
+            second.close();
+        }
+    }
+
+    private double gauge(String name)
+    {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
@@ -0,0 +1,33 @@
+package org.yearup.configurations;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestDeadlineFilterTest
+{
+    private final RequestDeadlineFilter filter = new RequestDeadlineFilter(2_000, 5_000, 30_000);
+
+    @Test
+    public void budget_shouldGiveExports_theirOwnBudget()
+    {
+        MockHttpServletRequest stream = new MockHttpServletRequest("GET", "/products");
+        stream.setParameter("stream", "true");
+        MockHttpServletRequest ndjson = new MockHttpServletRequest("GET", "/products");
+        ndjson.addHeader("Accept", "application/x-ndjson");
+
+        assertEquals(Duration.ofSeconds(30), filter.budget(stream));
+        assertEquals(Duration.ofSeconds(30), filter.budget(ndjson));
+    }
+
+    @Test
+    public void budget_shouldGiveCatalogAndCheckout_theirBudgets()
+    {
+        assertEquals(Duration.ofSeconds(2), filter.budget(new MockHttpServletRequest("GET", "/products")));
+        assertEquals(Duration.ofSeconds(2), filter.budget(new MockHttpServletRequest("GET", "/products/7")));
+        assertEquals(Duration.ofSeconds(5), filter.budget(new MockHttpServletRequest("POST", "/orders")));
+    }
+}
@@ -0,0 +1,71 @@
+package org.yearup.controllers;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.yearup.data.H2Database;
+import org.yearup.data.mysql.MySqlShoppingCartDao;
+import org.yearup.data.mysql.MySqlUnitOfWork;
+import org.yearup.data.mysql.MySqlUserDao;
+import org.yearup.models.ShoppingCart;
+import org.yearup.security.AuthenticatedUser;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /cart with the user id resolved by a per-request users lookup (before) against the
+ * id carried in the JWT principal (after). Runs on an in-memory H2 database; run the main
+ * method, or run org.openjdk.jmh.Main on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartUserResolutionBenchmark
+{
+    private final AuthenticatedUser principal = new AuthenticatedUser(1, "user", "", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+    private MySqlUserDao userDao;
+    private ShoppingCartController controller;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        DataSource dataSource = H2Database.create("cart-user-resolution");
+        MySqlShoppingCartDao shoppingCartDao = new MySqlShoppingCartDao(dataSource);
+        for (int productId = 1; productId <= 3; productId++)
+        {
+            shoppingCartDao.addItem(principal.getUserId(), productId);
+        }
+
+        userDao = new MySqlUserDao(dataSource, new BCryptPasswordEncoder());
+        controller = new ShoppingCartController(shoppingCartDao, new MySqlUnitOfWork(dataSource));
+    }
+
+    @Benchmark
+    public ShoppingCart userLookupPerRequest()
+    {
+        int userId = userDao.getByUserName(principal.getUsername()).getId();
+        return controller.getCart(new AuthenticatedUser(userId, principal.getUsername(), "", principal.getAuthorities()));
+    }
+
+    @Benchmark
+    public ShoppingCart userIdFromToken()
+    {
+        return controller.getCart(principal);
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder()
+                .include(CartUserResolutionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
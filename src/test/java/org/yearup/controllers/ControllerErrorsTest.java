@@ -0,0 +1,26 @@
+package org.yearup.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.yearup.data.DeadlineExceededException;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ControllerErrorsTest
+{
+    @Test
+    public void unexpected_shouldReturn503_whenTheDatabaseRanOutOfTime()
+    {
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ControllerErrors.unexpected(new RuntimeException(new SQLTimeoutException("timeout"))).getStatus());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ControllerErrors.unexpected(new DeadlineExceededException("late")).getStatus());
+    }
+
+    @Test
+    public void unexpected_shouldReturn500_otherwise()
+    {
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, ControllerErrors.unexpected(new RuntimeException(new SQLException("broken"))).getStatus());
+    }
+}
@@ -0,0 +1,55 @@
+package org.yearup.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+import org.yearup.models.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductPagesTest
+{
+    @Test
+    public void pageSize_shouldBeCapped_atTheServerMaximum()
+    {
+        assertEquals(100, ProductPages.pageSize(5000, 100));
+        assertEquals(100, ProductPages.pageSize(null, 100));
+        assertEquals(20, ProductPages.pageSize(20, 100));
+        assertThrows(ResponseStatusException.class, () -> ProductPages.pageSize(0, 100));
+    }
+
+    @Test
+    public void toResponse_shouldSetNextCursor_whenMoreProductsFollow()
+    {
+        // act
+        var response = ProductPages.toResponse(products(11), 10);
+
+        // assert
+        assertEquals(10, response.getBody().size());
+        assertEquals("10", response.getHeaders().getFirst(ProductPages.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    public void toResponse_shouldNotSetNextCursor_onTheLastPage()
+    {
+        // act
+        var response = ProductPages.toResponse(products(10), 10);
+
+        // assert
+        assertEquals(10, response.getBody().size());
+        assertNull(response.getHeaders().getFirst(ProductPages.NEXT_CURSOR_HEADER));
+    }
+
+    private static List<Product> products(int count)
+    {
+        List<Product> products = new ArrayList<>();
+        for (int i = 1; i <= count; i++)
+        {
+            products.add(new Product(i, "Product " + i, new BigDecimal("9.99"), 1, "", "", 10, false, ""));
+        }
+        return products;
+    }
+}
@@ -0,0 +1,177 @@
+package org.yearup.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.yearup.data.ProductDao;
+import org.yearup.models.Product;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class ProductsControllerTest
+{
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ProductDao productDao;
+    private ProductsController controller;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup()
+    {
+        productDao = mock(ProductDao.class);
+        doAnswer(invocation -> {
+            int limit = invocation.getArgument(4);
+            Consumer<Product> action = invocation.getArgument(5);
+            for (int i = 1; i <= Math.min(3, limit); i++)
+            {
+                action.accept(new Product(i, "Product " + i, new BigDecimal("9.99"), 1, "", "", 10, false, ""));
+            }
+            return null;
+        }).when(productDao).searchEach(isNull(), isNull(), isNull(), isNull(), anyInt(), any(Consumer.class));
+
+        controller = new ProductsController(productDao, objectMapper, 100, 1000);
+    }
+
+    @Test
+    public void search_shouldStreamNdjson_whenAskedForIt() throws Exception
+    {
+        // arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // act
+        var result = controller.search(null, null, null, null, null, null, false, ProductsController.APPLICATION_NDJSON_VALUE, response);
+
+        // assert
+        assertNull(result, "Because the products were written straight to the response.");
+        String[] lines = response.getContentAsString().split("\n");
+        assertEquals(3, lines.length, "Because every product goes on its own line.");
+        assertEquals(2, objectMapper.readValue(lines[1], Product.class).getProductId());
+        verify(productDao, never()).search(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    public void search_shouldStreamAJsonArray_whenStreamIsSet() throws Exception
+    {
+        // arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // act
+        controller.search(null, null, null, null, null, null, true, null, response);
+
+        // assert
+        Product[] products = objectMapper.readValue(response.getContentAsString(), Product[].class);
+        assertEquals(3, products.length);
+        assertEquals("application/json", response.getContentType());
+    }
+
+    @Test
+    public void search_shouldReturnAnError_whenTheExportFailsBeforeAnythingIsSent() throws Exception
+    {
+        // arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        failAfter(2);
+
+        // act
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> controller.search(null, null, null, null, null, null, true, null, response));
+
+        // assert
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, e.getStatus());
+        assertEquals("", response.getContentAsString(), "Because the buffered part of the export is discarded.");
+    }
+
+    @Test
+    public void search_shouldNotCloseTheArray_whenTheExportFailsAfterItWasSent() throws Exception
+    {
+        // arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setCommitted(true);
+        failAfter(2);
+
+        // act
+        assertThrows(IllegalStateException.class,
+                () -> controller.search(null, null, null, null, null, null, true, null, response));
+
+        // assert
+        String body = response.getContentAsString();
+        assertTrue(body.startsWith("[{"), body);
+        assertFalse(body.endsWith("]"), "Because a truncated export must not parse as a complete one.");
+    }
+
+    @Test
+    public void search_shouldRefuseAnExport_overTheRowLimit()
+    {
+        // arrange
+        controller = new ProductsController(productDao, objectMapper, 100, 2);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // act
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> controller.search(null, null, null, null, null, null, false, ProductsController.APPLICATION_NDJSON_VALUE, response));
+
+        // assert
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getStatus());
+        verify(productDao).searchEach(isNull(), isNull(), isNull(), isNull(), eq(3), any());
+    }
+
+    @Test
+    public void patchProduct_shouldRefuseNull_forNotNullFields()
+    {
+        // arrange
+        Map<String, Object> stock = new HashMap<>();
+        stock.put("stock", null);
+        Map<String, Object> price = new HashMap<>();
+        price.put("price", null);
+
+        // act
+        ResponseStatusException stockError = assertThrows(ResponseStatusException.class, () -> controller.patchProduct(1, stock));
+        ResponseStatusException priceError = assertThrows(ResponseStatusException.class, () -> controller.patchProduct(1, price));
+
+        // assert
+        assertEquals(HttpStatus.BAD_REQUEST, stockError.getStatus());
+        assertEquals("stock can't be null.", stockError.getReason());
+        assertEquals(HttpStatus.BAD_REQUEST, priceError.getStatus());
+        verify(productDao, never()).patch(anyInt(), any(), any());
+    }
+
+    @Test
+    public void patchProduct_shouldClear_aNullableField()
+    {
+        // arrange
+        when(productDao.patch(eq(1), any(), eq(Set.of("description")))).thenReturn(true);
+        Map<String, Object> description = new HashMap<>();
+        description.put("description", null);
+
+        // act
+        controller.patchProduct(1, description);
+
+        // assert
+        verify(productDao).patch(eq(1), argThat(changes -> changes.getDescription() == null), eq(Set.of("description")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void failAfter(int products)
+    {
+        doAnswer(invocation -> {
+            Consumer<Product> action = invocation.getArgument(5);
+            for (int i = 1; i <= products; i++)
+            {
+                action.accept(new Product(i, "Product " + i, new BigDecimal("9.99"), 1, "", "", 10, false, ""));
+            }
+            throw new IllegalStateException("connection reset");
+        }).when(productDao).searchEach(isNull(), isNull(), isNull(), isNull(), anyInt(), any(Consumer.class));
+    }
+}
@@ -0,0 +1,206 @@
+package org.yearup.data;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Creates in-memory H2 databases in MySQL mode loaded with h2-schema.sql and the
+ * migrations in database/migrations, so DAO tests can run real SQL without a MySQL server.
+ */
+public final class H2Database
+{
+    private static final Path MIGRATIONS = Path.of("database", "migrations");
+
+    private H2Database()
+    {
+    }
+
+    /**
+     * Creates (or recreates) a named database. Each name is a separate database
+     * that lives until the JVM exits.
+     * @param name the database name
+     * @return a data source for the database
+     */
+    public static DataSource create(String name)
+    {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url(name));
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement())
+        {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute("RUNSCRIPT FROM 'classpath:h2-schema.sql'");
+            for (Path migration : migrations())
+            {
+                statement.execute("RUNSCRIPT FROM '" + migration + "'");
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new RuntimeException(e);
+        }
+        return dataSource;
+    }
+
+    /**
+     * Creates (or recreates) a named database behind a DBCP pool, so DAO code can be run
+     * from many threads on separate connections the way it runs in the application.
+     * Lock waits time out after ten seconds instead of H2's default one, and the
+     * AUTO_INCREMENT columns draw from plain sequences: in MySQL mode H2 2.1 hands the
+     * same identity value to concurrent inserts. Upserts are retried, see {@link #retryingUpserts}.
+     * @param name the database name
+     * @param maxConnections the pool size
+     * @return the pool; close it when done
+     */
+    public static BasicDataSource createPooled(String name, int maxConnections)
+    {
+        replaceIdentities(create(name));
+
+        BasicDataSource pool = new BasicDataSource()
+        {
+            @Override
+            public Connection getConnection() throws SQLException
+            {
+                return retryingUpserts(super.getConnection());
+            }
+        };
+        pool.setUrl(url(name) + ";LOCK_TIMEOUT=10000");
+        pool.setMaxTotal(maxConnections);
+        pool.setMaxIdle(maxConnections);
+        return pool;
+    }
+
+    private static void replaceIdentities(DataSource dataSource)
+    {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement())
+        {
+            List<String[]> identities = new ArrayList<>();
+            try (ResultSet row = statement.executeQuery("""
+                    SELECT table_name, column_name FROM information_schema.columns
+                    WHERE table_schema = 'public' AND is_identity = 'YES'
+                    """))
+            {
+                while (row.next())
+                {
+                    identities.add(new String[] {row.getString(1), row.getString(2)});
+                }
+            }
+
+            for (String[] identity : identities)
+            {
+                String table = identity[0];
+                String column = identity[1];
+                long next;
+                try (ResultSet row = statement.executeQuery("SELECT COALESCE(MAX(" + column + "), 0) + 1 FROM " + table))
+                {
+                    row.next();
+                    next = row.getLong(1);
+                }
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " DROP IDENTITY");
+                statement.execute("CREATE SEQUENCE " + table + "_seq START WITH " + next);
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " SET DEFAULT NEXT VALUE FOR " + table + "_seq");
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * MySQL reports 1 or 2 rows for INSERT ... ON DUPLICATE KEY UPDATE. H2 reports 0, and
+     * changes nothing, when another transaction deletes the row between the duplicate key
+     * check and the update; MySQL would have locked the row. Running the upsert again then
+     * inserts, the way the add would have gone on MySQL.
+     */
+    private static Connection retryingUpserts(Connection connection)
+    {
+        return (Connection) Proxy.newProxyInstance(H2Database.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")
+                            && ((String) args[0]).contains("ON DUPLICATE KEY UPDATE"))
+                        return retrying(statement);
+                    return result;
+                });
+    }
+
+    private static PreparedStatement retrying(PreparedStatement statement)
+    {
+        return (PreparedStatement) Proxy.newProxyInstance(H2Database.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("executeUpdate") || args != null)
+                        return invoke(statement, method, args);
+
+                    // under steady checkouts of the same cart a few attempts in a row can lose the race
+                    for (int attempt = 1; attempt <= 100; attempt++)
+                    {
+                        int rows = statement.executeUpdate();
+                        if (rows != 0)
+                            return rows;
+                    }
+                    throw new SQLException("The upsert changed no rows in 100 attempts");
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable
+    {
+        try
+        {
+            return method.invoke(target, args);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+    private static String url(String name)
+    {
+        return "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    }
+
+    /**
+     * @return the migration scripts, in version order
+     */
+    private static List<Path> migrations()
+    {
+        try (Stream<Path> files = Files.list(MIGRATIONS))
+        {
+            return files
+                    .filter(file -> file.getFileName().toString().matches("V\\d+__.*\\.sql"))
+                    .sorted(Comparator.comparingInt(H2Database::version))
+                    .toList();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int version(Path migration)
+    {
+        String name = migration.getFileName().toString();
+        return Integer.parseInt(name.substring(1, name.indexOf("__")));
+    }
+}
@@ -0,0 +1,106 @@
+package org.yearup.data;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * h2-schema.sql is kept by hand next to test-data.sql, the MySQL schema the integration tests
+ * load. This loads both into H2 (h2-schema.sql with the migrations, the way H2Database does)
+ * and fails when their tables, columns or indexes drift apart. Index names are left out,
+ * since H2 names the ones declared inside CREATE TABLE itself.
+ */
+class SchemaParityTest
+{
+    private static final String COLUMNS = """
+            SELECT table_name, column_name, ordinal_position, data_type, character_maximum_length,
+                   numeric_precision, numeric_scale, is_nullable, column_default, is_identity
+            FROM information_schema.columns
+            WHERE table_schema = 'public'
+            ORDER BY table_name, ordinal_position
+            """;
+
+    private static final String INDEXES = """
+            SELECT i.table_name, i.index_type_name, LISTAGG(c.column_name, ', ') WITHIN GROUP (ORDER BY c.ordinal_position)
+            FROM information_schema.indexes i
+            JOIN information_schema.index_columns c
+              ON c.index_schema = i.index_schema AND c.table_name = i.table_name AND c.index_name = i.index_name
+            WHERE i.table_schema = 'public'
+            GROUP BY i.table_name, i.index_name, i.index_type_name
+            ORDER BY 1, 2, 3
+            """;
+
+    @Test
+    public void h2Schema_shouldMatchTestData()
+    {
+        // arrange
+        DataSource h2Schema = H2Database.create("schema-parity-h2");
+        DataSource testData = testData();
+
+        // act
+        List<String> h2Columns = rows(h2Schema, COLUMNS);
+        List<String> testDataColumns = rows(testData, COLUMNS);
+        List<String> h2Indexes = rows(h2Schema, INDEXES);
+        List<String> testDataIndexes = rows(testData, INDEXES);
+
+        // assert
+        assertFalse(testDataColumns.isEmpty());
+        assertEquals(String.join("\n", testDataColumns), String.join("\n", h2Columns),
+                "Because h2-schema.sql should declare the same columns as test-data.sql.");
+        assertEquals(String.join("\n", testDataIndexes), String.join("\n", h2Indexes),
+                "Because h2-schema.sql and the migrations should add the same indexes as test-data.sql.");
+    }
+
+    private static DataSource testData()
+    {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:schema-parity-test-data;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement())
+        {
+            statement.execute("DROP ALL OBJECTS");
+            statement.execute("RUNSCRIPT FROM 'classpath:test-data.sql'");
+        }
+        catch (SQLException e)
+        {
+            throw new RuntimeException(e);
+        }
+        return dataSource;
+    }
+
+    private static List<String> rows(DataSource dataSource, String sql)
+    {
+        List<String> rows = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet row = statement.executeQuery(sql))
+        {
+            int columns = row.getMetaData().getColumnCount();
+            while (row.next())
+            {
+                List<String> values = new ArrayList<>();
+                for (int i = 1; i <= columns; i++)
+                {
+                    values.add(String.valueOf(row.getObject(i)));
+                }
+                rows.add(String.join(" | ", values));
+            }
+        }
+        catch (SQLException e)
+        {
+            throw new RuntimeException(e);
+        }
+        return rows;
+    }
+}
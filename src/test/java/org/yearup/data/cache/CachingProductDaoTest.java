@@ -0,0 +1,158 @@
+package org.yearup.data.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yearup.data.ProductDao;
+import org.yearup.models.Product;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CachingProductDaoTest
+{
+    private ProductDao delegate;
+    private CachingProductDao dao;
+
+    @BeforeEach
+    public void setup()
+    {
+        delegate = mock(ProductDao.class);
+        when(delegate.getById(anyInt())).thenAnswer(invocation -> product(invocation.getArgument(0)));
+        dao = new CachingProductDao(delegate, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    public void getById_shouldOnlyHitTheDatabase_once()
+    {
+        // act
+        var first = dao.getById(1);
+        var second = dao.getById(1);
+
+        // assert
+        assertEquals(first.getName(), second.getName());
+        verify(delegate, times(1)).getById(1);
+        assertEquals(1, dao.getStats().hitCount());
+        assertEquals(1, dao.getStats().missCount());
+    }
+
+    @Test
+    public void getById_shouldHandOutCopies_ofTheCachedProduct()
+    {
+        // arrange
+        var first = dao.getById(1);
+
+        // act
+        first.setStock(0);
+        var second = dao.getById(1);
+
+        // assert
+        assertNotSame(first, second);
+        assertEquals(10, second.getStock(), "Because changing a returned product shouldn't change the cached one.");
+        verify(delegate, times(1)).getById(1);
+    }
+
+    @Test
+    public void update_shouldInvalidate_theCachedProduct()
+    {
+        // arrange
+        dao.getById(1);
+
+        // act
+        dao.update(1, product(1));
+        dao.getById(1);
+
+        // assert
+        verify(delegate, times(2)).getById(1);
+    }
+
+    @Test
+    public void delete_shouldInvalidate_theCachedProduct()
+    {
+        // arrange
+        dao.getById(1);
+
+        // act
+        dao.delete(1);
+        dao.getById(1);
+
+        // assert
+        verify(delegate, times(2)).getById(1);
+    }
+
+    @Test
+    public void update_shouldNotInvalidate_otherProducts()
+    {
+        // arrange
+        dao.getById(1);
+        dao.getById(2);
+
+        // act
+        dao.update(1, product(1));
+        dao.getById(2);
+
+        // assert
+        verify(delegate, times(1)).getById(2);
+    }
+
+    @Test
+    public void patch_shouldUpdate_theCachedProductInPlace()
+    {
+        // arrange
+        when(delegate.patch(eq(1), any(), eq(Set.of("stock")))).thenReturn(true);
+        dao.getById(1);
+        Product changes = new Product();
+        changes.setStock(3);
+
+        // act
+        dao.patch(1, changes, Set.of("stock"));
+        var actual = dao.getById(1);
+
+        // assert
+        verify(delegate, times(1)).getById(1);
+        assertEquals(3, actual.getStock());
+        assertEquals("Product 1", actual.getName());
+    }
+
+    @Test
+    public void patch_shouldInvalidate_whenNothingWasPatched()
+    {
+        // arrange
+        dao.getById(1);
+
+        // act
+        dao.patch(1, new Product(), Set.of("stock"));
+        dao.getById(1);
+
+        // assert
+        verify(delegate, times(2)).getById(1);
+    }
+
+    @Test
+    public void getByIds_shouldOnlyLoad_theMissingProducts()
+    {
+        // arrange
+        when(delegate.getByIds(List.of(2, 3))).thenReturn(List.of(product(2), product(3)));
+        dao.getById(1);
+
+        // act
+        var actual = dao.getByIds(List.of(1, 2, 3));
+
+        // assert
+        assertEquals(3, actual.size());
+        verify(delegate).getByIds(List.of(2, 3));
+    }
+
+    private static Product product(int productId)
+    {
+        return new Product(productId, "Product " + productId, new BigDecimal("9.99"), 1, "", "", 10, false, "");
+    }
+}
@@ -0,0 +1,61 @@
+package org.yearup.data.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.yearup.controllers.ProductsController;
+import org.yearup.data.H2Database;
+import org.yearup.data.ProductDao;
+import org.yearup.data.mysql.MySqlProductDao;
+import org.yearup.models.Product;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of the product detail endpoint with and without the product cache.
+ * Sample-time mode reports the p99 (and p99.9) next to the mean. Runs on an in-memory H2
+ * database, so the uncached numbers are a floor for what a MySQL round trip costs; run the
+ * main method, or run org.openjdk.jmh.Main on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductDetailLatencyBenchmark
+{
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private ProductsController controller;
+    private int productId;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        ProductDao productDao = new MySqlProductDao(H2Database.create("product-detail"));
+        if (cached)
+            productDao = new CachingProductDao(productDao, 10_000, Duration.ofMinutes(5));
+
+        controller = new ProductsController(productDao, new ObjectMapper(), 100, 1000);
+    }
+
+    @Benchmark
+    public Product getById()
+    {
+        // cycle over the five products h2-schema.sql adds
+        productId = productId % 5 + 1;
+        return controller.getById(productId);
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder()
+                .include(ProductDetailLatencyBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
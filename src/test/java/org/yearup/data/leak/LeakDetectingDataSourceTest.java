@@ -0,0 +1,105 @@
+package org.yearup.data.leak;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.yearup.data.H2Database;
+import org.yearup.data.mysql.*;
+import org.yearup.models.Category;
+import org.yearup.models.Product;
+import org.yearup.models.Profile;
+import org.yearup.models.User;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeakDetectingDataSourceTest
+{
+    private LeakDetectingDataSource dataSource;
+
+    @BeforeEach
+    public void setup()
+    {
+        dataSource = new LeakDetectingDataSource(H2Database.create("leaks"), LeakDetectingDataSource.Mode.FAIL);
+    }
+
+    @Test
+    public void close_shouldFail_whenAStatementIsLeaked() throws SQLException
+    {
+        Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement("SELECT * FROM products");
+        statement.executeQuery();
+
+        IllegalStateException leak = assertThrows(IllegalStateException.class, connection::close);
+
+        assertEquals("2 JDBC resource(s) leaked, first for [SELECT * FROM products]", leak.getMessage());
+        assertEquals(2, dataSource.getLeakCount());
+        assertTrue(connection.isClosed(), "the connection should still be given back");
+    }
+
+    @Test
+    public void close_shouldNotReportResultSets_ofClosedStatements() throws SQLException
+    {
+        try (Connection connection = dataSource.getConnection())
+        {
+            PreparedStatement statement = connection.prepareStatement("SELECT * FROM products");
+            ResultSet ignored = statement.executeQuery();
+            statement.close();
+        }
+
+        assertEquals(0, dataSource.getLeakCount());
+    }
+
+    @Test
+    public void daos_shouldNotLeak()
+    {
+        MySqlProductDao productDao = new MySqlProductDao(dataSource);
+        MySqlCategoryDao categoryDao = new MySqlCategoryDao(dataSource);
+        MySqlUserDao userDao = new MySqlUserDao(dataSource, new BCryptPasswordEncoder(4));
+        MySqlProfileDao profileDao = new MySqlProfileDao(dataSource);
+        MySqlShoppingCartDao shoppingCartDao = new MySqlShoppingCartDao(dataSource);
+        MySqlOrdersDao ordersDao = new MySqlOrdersDao(dataSource, profileDao);
+
+        productDao.search(1, new BigDecimal("10"), null, "Black", null, 100);
+        productDao.search(null, null, null, null, 1, 2);
+        productDao.searchEach(1, null, null, null, 100, product -> { });
+        productDao.listByCategoryId(1, null, 100);
+        productDao.listByCategoryId(1, null, 2);
+        productDao.getById(1);
+        productDao.getByIds(List.of(1, 2));
+        Product product = productDao.create(new Product(0, "Tablet", new BigDecimal("199.99"), 1, "", "Black", 5, false, ""));
+        productDao.update(product.getProductId(), product);
+        productDao.delete(product.getProductId());
+
+        categoryDao.getAllCategories();
+        categoryDao.getById(1);
+        Category category = categoryDao.create(new Category(0, "Books", ""));
+        categoryDao.update(category.getCategoryId(), category);
+        categoryDao.delete(category.getCategoryId());
+
+        User user = userDao.create(new User(0, "leaky", "password", "ROLE_USER"));
+        userDao.getAll();
+        userDao.getUserById(user.getId());
+        userDao.exists("leaky");
+
+        Profile profile = new Profile(user.getId(), "Lee", "Key", "800-555-0000", "lee@email.com", "1 Main St", "Dallas", "TX", "75001");
+        profileDao.create(profile);
+        profileDao.update(user.getId(), profile);
+        profileDao.getProfile(user.getId());
+
+        shoppingCartDao.addItem(user.getId(), 1);
+        shoppingCartDao.addItem(user.getId(), 1);
+        shoppingCartDao.updateQuantity(user.getId(), 1, 3);
+        shoppingCartDao.getByUserId(user.getId());
+        ordersDao.create(user.getId());
+        shoppingCartDao.deleteCart(user.getId());
+
+        assertEquals(0, dataSource.getLeakCount());
+    }
+}
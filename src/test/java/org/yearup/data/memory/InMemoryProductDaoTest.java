@@ -0,0 +1,113 @@
+package org.yearup.data.memory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yearup.models.Product;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryProductDaoTest
+{
+    private InMemoryProductDao productDao;
+
+    @BeforeEach
+    public void setup()
+    {
+        productDao = new InMemoryProductDao();
+        productDao.create(product("Smartphone", "499.99", 1, "Black"));
+        productDao.create(product("Laptop", "899.99", 1, "Gray"));
+        productDao.create(product("Headphones", "99.99", 1, "White"));
+        productDao.create(product("Jeans", "49.99", 2, "Blue"));
+        productDao.create(product("Sneakers", "89.99", 2, "White"));
+        productDao.create(product("Blender", "69.99", 3, "Black"));
+    }
+
+    @Test
+    public void search_shouldMatch_everySuppliedFilter()
+    {
+        assertEquals(List.of(3, 5), ids(productDao.search(null, new BigDecimal("60"), new BigDecimal("100"), "white", null, 100)));
+        assertEquals(List.of(1, 2), ids(productDao.search(1, new BigDecimal("100"), null, null, null, 100)));
+        assertEquals(List.of(4, 5, 6), ids(productDao.search(null, null, new BigDecimal("90"), "", null, 100)));
+        assertEquals(List.of(1, 6), ids(productDao.search(null, null, null, "Black", null, 100)));
+        assertEquals(6, productDao.search(null, null, null, null, null, 100).size());
+    }
+
+    @Test
+    public void search_shouldPage_inProductIdOrder()
+    {
+        assertEquals(List.of(3, 4), ids(productDao.search(null, null, new BigDecimal("100"), null, null, 2)));
+        assertEquals(List.of(5, 6), ids(productDao.search(null, null, new BigDecimal("100"), null, 4, 2)));
+        assertEquals(List.of(2, 3), ids(productDao.listByCategoryId(1, 1, 10)));
+    }
+
+    @Test
+    public void update_shouldMoveTheProduct_betweenIndexes()
+    {
+        // act
+        productDao.update(1, product("Smartphone", "19.99", 3, "Black"));
+
+        // assert
+        assertEquals(List.of(2, 3), ids(productDao.listByCategoryId(1, null, 100)));
+        assertEquals(List.of(1, 6), ids(productDao.listByCategoryId(3, null, 100)));
+        assertEquals(List.of(1), ids(productDao.search(null, null, new BigDecimal("20"), null, null, 100)));
+        assertEquals(new BigDecimal("19.99"), productDao.getById(1).getPrice());
+    }
+
+    @Test
+    public void patch_shouldOnlyChange_theSuppliedFields()
+    {
+        // arrange
+        Product changes = new Product();
+        changes.setPrice(new BigDecimal("5"));
+
+        // act
+        boolean patched = productDao.patch(4, changes, Set.of("price"));
+
+        // assert
+        assertTrue(patched);
+        Product after = productDao.getById(4);
+        assertEquals(new BigDecimal("5.00"), after.getPrice());
+        assertEquals("Jeans", after.getName());
+        assertEquals(List.of(4), ids(productDao.search(null, null, new BigDecimal("10"), null, null, 100)));
+        assertFalse(productDao.patch(99, changes, Set.of("price")));
+        assertThrows(IllegalArgumentException.class, () -> productDao.patch(4, changes, Set.of("productId")));
+    }
+
+    @Test
+    public void reads_shouldHandOutCopies_ofTheStoredRows()
+    {
+        // act
+        productDao.getById(1).setStock(0);
+        productDao.search(1, null, null, null, null, 10).forEach(product -> product.setCategoryId(3));
+        productDao.getByIds(List.of(4)).get(0).setPrice(BigDecimal.ONE);
+
+        // assert
+        assertEquals(10, productDao.getById(1).getStock(), "Because changing a returned product shouldn't change the stored row.");
+        assertEquals(List.of(1, 2, 3), ids(productDao.search(1, null, null, null, null, 10)));
+        assertEquals(new BigDecimal("49.99"), productDao.getById(4).getPrice());
+    }
+
+    @Test
+    public void delete_shouldRemoveTheProduct_fromEveryIndex()
+    {
+        productDao.delete(2);
+
+        assertNull(productDao.getById(2));
+        assertEquals(List.of(1, 3), ids(productDao.listByCategoryId(1, null, 100)));
+        assertEquals(List.of(1), ids(productDao.search(null, new BigDecimal("400"), null, null, null, 100)));
+    }
+
+    private static Product product(String name, String price, int categoryId, String subCategory)
+    {
+        return new Product(0, name, new BigDecimal(price), categoryId, name + ".", subCategory, 10, false, null);
+    }
+
+    private static List<Integer> ids(List<Product> products)
+    {
+        return products.stream().map(Product::getProductId).toList();
+    }
+}
@@ -0,0 +1,153 @@
+package org.yearup.data.memory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yearup.data.EmptyCartException;
+import org.yearup.models.Order;
+import org.yearup.models.Product;
+import org.yearup.models.Profile;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryShoppingCartDaoTest
+{
+    private InMemoryProductDao productDao;
+    private InMemoryShoppingCartDao shoppingCartDao;
+    private InMemoryOrdersDao ordersDao;
+
+    @BeforeEach
+    public void setup()
+    {
+        productDao = new InMemoryProductDao();
+        productDao.create(new Product(0, "Smartphone", new BigDecimal("499.99"), 1, "", "Black", 50, false, null));
+        productDao.create(new Product(0, "Laptop", new BigDecimal("899.99"), 1, "", "Gray", 30, false, null));
+
+        InMemoryProfileDao profileDao = new InMemoryProfileDao();
+        profileDao.create(new Profile(1, "Joe", "Joesephus", "800-555-1234", "joe@email.com", "789 Oak Avenue", "Dallas", "TX", "75051"));
+
+        shoppingCartDao = new InMemoryShoppingCartDao(productDao);
+        ordersDao = new InMemoryOrdersDao(profileDao, shoppingCartDao, productDao);
+    }
+
+    @Test
+    public void addItem_shouldNotLoseIncrements_underConcurrency() throws Exception
+    {
+        // arrange
+        int threads = 8;
+        int addsPerThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // act
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++)
+            {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < addsPerThread; i++)
+                    {
+                        shoppingCartDao.addItem(1, 1);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures)
+            {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        // assert
+        assertEquals(threads * addsPerThread, shoppingCartDao.getByUserId(1).get(1).getQuantity());
+    }
+
+    @Test
+    public void checkout_shouldOrderEveryAdd_exactlyOnce() throws Exception
+    {
+        // arrange
+        int adds = 5000;
+        AtomicInteger ordered = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // act: keep adding while another thread checks out
+        try
+        {
+            Future<?> adder = executor.submit(() -> {
+                for (int i = 0; i < adds; i++)
+                {
+                    shoppingCartDao.addItem(1, 2);
+                }
+            });
+            Future<?> checkout = executor.submit(() -> {
+                while (!adder.isDone())
+                {
+                    ordered.addAndGet(quantityTaken());
+                }
+            });
+            adder.get(30, TimeUnit.SECONDS);
+            checkout.get(30, TimeUnit.SECONDS);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        ordered.addAndGet(quantityTaken());
+
+        // assert
+        assertEquals(adds, ordered.get());
+        assertTrue(shoppingCartDao.getByUserId(1).getItems().isEmpty());
+    }
+
+    @Test
+    public void create_shouldShipToTheProfileAddress()
+    {
+        shoppingCartDao.addItem(1, 1);
+
+        Order order = ordersDao.create(1);
+
+        assertEquals("789 Oak Avenue", order.getAddress());
+        assertTrue(shoppingCartDao.getByUserId(1).getItems().isEmpty());
+        assertThrows(IllegalStateException.class, () -> ordersDao.create(2));
+    }
+
+    @Test
+    public void create_shouldReject_anEmptyCart()
+    {
+        shoppingCartDao.addItem(1, 1);
+        Order first = ordersDao.create(1);
+
+        // the cart the first checkout emptied, as a second checkout racing it would find it
+        assertThrows(EmptyCartException.class, () -> ordersDao.create(1));
+
+        shoppingCartDao.addItem(1, 2);
+        assertEquals(first.getOrderId() + 1, ordersDao.create(1).getOrderId(), "Because the rejected checkout created no order.");
+    }
+
+    @Test
+    public void addItem_shouldReject_anUnknownProduct()
+    {
+        assertThrows(IllegalArgumentException.class, () -> shoppingCartDao.addItem(1, 99));
+    }
+
+    private int quantityTaken()
+    {
+        return shoppingCartDao.takeAll(1).values().stream().mapToInt(Integer::intValue).sum();
+    }
+}
@@ -0,0 +1,344 @@
+package org.yearup.data.mysql;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yearup.data.EmptyCartException;
+import org.yearup.data.H2Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the cart and checkout DAOs from many threads at once against H2 in MySQL mode behind
+ * a real connection pool, then checks the invariants that single-connection DAO tests can't
+ * see: no lost increments, no line items without an order, no order without line items,
+ * and no cart ordered twice.
+ */
+class CartCheckoutStressTest
+{
+    private static final int THREADS = 16;
+    private static final int SHOPPERS = 8;
+    private static final int PRODUCTS = 5;
+
+    private BasicDataSource dataSource;
+    private MySqlShoppingCartDao shoppingCartDao;
+    private MySqlOrdersDao ordersDao;
+    private MySqlUnitOfWork unitOfWork;
+
+    @BeforeEach
+    public void setup() throws SQLException
+    {
+        dataSource = H2Database.createPooled("stress", THREADS + 4);
+        addShoppers();
+
+        shoppingCartDao = new MySqlShoppingCartDao(dataSource);
+        ordersDao = new MySqlOrdersDao(dataSource, new MySqlProfileDao(dataSource));
+        unitOfWork = new MySqlUnitOfWork(dataSource);
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException
+    {
+        dataSource.close();
+    }
+
+    @Test
+    public void addItem_fromManyThreads_shouldNotLoseIncrements() throws Exception
+    {
+        // arrange
+        int addsPerThread = 200;
+
+        // act
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < addsPerThread; i++)
+            {
+                shoppingCartDao.addItem(1, 1 + i % PRODUCTS);
+            }
+        });
+
+        // assert
+        Map<Integer, Integer> cart = cartQuantities(1);
+        for (int productId = 1; productId <= PRODUCTS; productId++)
+        {
+            assertEquals(THREADS * addsPerThread / PRODUCTS, cart.get(productId), "product " + productId);
+        }
+    }
+
+    @Test
+    public void checkout_whileAdding_shouldOrderEveryAddExactlyOnce() throws Exception
+    {
+        // arrange
+        int adders = THREADS - 4;
+        int addsPerThread = 100;
+        AtomicInteger addersLeft = new AtomicInteger(adders);
+
+        // act: four threads keep checking out the cart the other threads are filling
+        runConcurrently(THREADS, thread -> {
+            if (thread < adders)
+            {
+                for (int i = 0; i < addsPerThread; i++)
+                {
+                    shoppingCartDao.addItem(1, 1 + (thread + i) % PRODUCTS);
+                }
+                addersLeft.decrementAndGet();
+            }
+            else
+            {
+                while (addersLeft.get() > 0)
+                {
+                    checkOut(1);
+                }
+            }
+        });
+        checkOut(1);
+
+        // assert
+        Map<Integer, Integer> ordered = orderedQuantities(1);
+        for (int productId = 1; productId <= PRODUCTS; productId++)
+        {
+            assertEquals(adders * addsPerThread / PRODUCTS, ordered.get(productId), "product " + productId);
+        }
+        assertTrue(cartQuantities(1).isEmpty());
+        assertNoOrphanedLineItems();
+        assertNoOrdersWithoutLineItems();
+    }
+
+    @Test
+    public void concurrentCheckouts_shouldNotOrderACartTwice() throws Exception
+    {
+        // arrange: every shopper has 1 of product 1, 2 of product 2, ...
+        for (int userId = 1; userId <= SHOPPERS; userId++)
+        {
+            for (int productId = 1; productId <= PRODUCTS; productId++)
+            {
+                for (int i = 0; i < productId; i++)
+                {
+                    shoppingCartDao.addItem(userId, productId);
+                }
+            }
+        }
+
+        // act: two threads check out each cart at the same moment
+        AtomicInteger orders = new AtomicInteger();
+        runConcurrently(THREADS, thread -> {
+            if (checkOut(1 + thread % SHOPPERS))
+                orders.incrementAndGet();
+        });
+
+        // assert
+        for (int userId = 1; userId <= SHOPPERS; userId++)
+        {
+            Map<Integer, Integer> ordered = orderedQuantities(userId);
+            for (int productId = 1; productId <= PRODUCTS; productId++)
+            {
+                assertEquals(productId, ordered.get(productId), "user " + userId + ", product " + productId);
+            }
+            assertTrue(cartQuantities(userId).isEmpty());
+        }
+        assertEquals(SHOPPERS, orders.get(), "Because the second checkout of each cart finds it empty.");
+        assertEquals(SHOPPERS, count("SELECT COUNT(*) FROM orders"));
+        assertNoOrphanedLineItems();
+        assertNoOrdersWithoutLineItems();
+    }
+
+    @Test
+    public void mixedCartTraffic_shouldLeaveConsistentOrders() throws Exception
+    {
+        // act: adds, quantity changes and checkouts across every shopper
+        runConcurrently(THREADS, thread -> {
+            Random random = new Random(thread);
+            for (int i = 0; i < 150; i++)
+            {
+                int userId = 1 + random.nextInt(SHOPPERS);
+                int productId = 1 + random.nextInt(PRODUCTS);
+                int action = random.nextInt(10);
+                if (action < 6)
+                    shoppingCartDao.addItem(userId, productId);
+                else if (action < 8)
+                    shoppingCartDao.updateQuantity(userId, productId, 1 + random.nextInt(5));
+                else
+                    checkOut(userId);
+            }
+        });
+
+        // assert
+        assertNoOrphanedLineItems();
+        assertNoOrdersWithoutLineItems();
+        assertEquals(0, count("""
+                SELECT COUNT(*) FROM (
+                    SELECT order_id, product_id FROM order_line_items
+                    GROUP BY order_id, product_id HAVING COUNT(*) > 1) duplicates
+                """), "Because a product appears once per order.");
+        assertEquals(0, count("SELECT COUNT(*) FROM order_line_items WHERE quantity < 1"));
+        assertEquals(0, count("SELECT COUNT(*) FROM shopping_cart WHERE quantity < 1"));
+    }
+
+    @FunctionalInterface
+    private interface Worker
+    {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Starts the workers together and waits for all of them, failing with every error they threw.
+     */
+    private static void runConcurrently(int threads, Worker worker) throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try
+        {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++)
+            {
+                int thread = t;
+                Callable<Void> task = () -> {
+                    start.await();
+                    worker.run(thread);
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+
+            List<Throwable> errors = new ArrayList<>();
+            for (Future<Void> future : futures)
+            {
+                try
+                {
+                    future.get(60, TimeUnit.SECONDS);
+                }
+                catch (ExecutionException e)
+                {
+                    errors.add(e.getCause());
+                }
+            }
+            if (!errors.isEmpty())
+            {
+                AssertionError failure = new AssertionError(errors.size() + " of " + threads + " workers failed", errors.get(0));
+                errors.stream().skip(1).forEach(failure::addSuppressed);
+                throw failure;
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private void addShoppers() throws SQLException
+    {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement())
+        {
+            // the schema script adds users 1 and 2 with profiles
+            for (int userId = 3; userId <= SHOPPERS; userId++)
+            {
+                statement.executeUpdate("INSERT INTO users (user_id, username, hashed_password, role) VALUES ("
+                        + userId + ", 'shopper" + userId + "', '', 'ROLE_USER')");
+                statement.executeUpdate("INSERT INTO profiles (user_id, first_name, last_name, phone, email, address, city, state, zip) VALUES ("
+                        + userId + ", 'Shopper', '" + userId + "', '800-555-0000', 'shopper@email.com', '1 Main Street', 'Dallas', 'TX', '75051')");
+            }
+        }
+    }
+
+    /**
+     * Checks out the cart the way OrdersController does.
+     * @return false if the cart was empty, which a checkout racing another one can find
+     */
+    private boolean checkOut(int userId)
+    {
+        try
+        {
+            unitOfWork.execute(() -> ordersDao.create(userId));
+            return true;
+        }
+        catch (EmptyCartException e)
+        {
+            return false;
+        }
+    }
+
+    private void assertNoOrdersWithoutLineItems() throws SQLException
+    {
+        assertEquals(0, count("""
+                SELECT COUNT(*) FROM orders o
+                LEFT JOIN order_line_items li ON li.order_id = o.order_id
+                WHERE li.order_id IS NULL
+                """), "Because an empty cart is refused, not ordered.");
+    }
+
+    private void assertNoOrphanedLineItems() throws SQLException
+    {
+        assertEquals(0, count("""
+                SELECT COUNT(*) FROM order_line_items li
+                LEFT JOIN orders o ON o.order_id = li.order_id
+                WHERE o.order_id IS NULL
+                """), "Because line items are only written with their order.");
+    }
+
+    private Map<Integer, Integer> cartQuantities(int userId) throws SQLException
+    {
+        return quantities("SELECT product_id, quantity FROM shopping_cart WHERE user_id = ?", userId);
+    }
+
+    private Map<Integer, Integer> orderedQuantities(int userId) throws SQLException
+    {
+        return quantities("""
+                SELECT li.product_id, SUM(li.quantity)
+                FROM order_line_items li
+                JOIN orders o ON o.order_id = li.order_id
+                WHERE o.user_id = ?
+                GROUP BY li.product_id
+                """, userId);
+    }
+
+    private Map<Integer, Integer> quantities(String sql, int userId) throws SQLException
+    {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql))
+        {
+            statement.setInt(1, userId);
+            try (ResultSet row = statement.executeQuery())
+            {
+                Map<Integer, Integer> quantities = new HashMap<>();
+                while (row.next())
+                {
+                    quantities.put(row.getInt(1), row.getInt(2));
+                }
+                return quantities;
+            }
+        }
+    }
+
+    private long count(String sql) throws SQLException
+    {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet row = statement.executeQuery(sql))
+        {
+            row.next();
+            return row.getLong(1);
+        }
+    }
+}
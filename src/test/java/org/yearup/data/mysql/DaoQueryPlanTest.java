@@ -0,0 +1,255 @@
+package org.yearup.data.mysql;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.yearup.data.H2Database;
+import org.yearup.models.Category;
+import org.yearup.models.Product;
+import org.yearup.models.Profile;
+import org.yearup.models.User;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs every DAO method against H2 (schema plus database/migrations), records each SQL string
+ * it executes with its parameters, and EXPLAINs them in H2. Any query H2 would answer with a
+ * table scan fails the test, unless it is one of the deliberate whole-table reads below.
+ * These are H2's plans only: they show that some index covers each query, not that MySQL's
+ * optimizer picks it. ProductSearchExplainTest checks MySQL's plans for product search; like
+ * the other BaseDaoTestClass tests it needs the MySQL server TestDatabaseConfig points at.
+ */
+class DaoQueryPlanTest
+{
+    /** Admin listings that are meant to read the whole table. */
+    private static final Set<String> FULL_SCANS_ALLOWED = Set.of(
+            "SELECT * FROM categories",
+            "SELECT * FROM users");
+
+    private final Map<String, List<Object>> executed = new LinkedHashMap<>();
+    private DataSource database;
+    private DataSource dataSource;
+
+    @BeforeEach
+    public void setup()
+    {
+        database = H2Database.create("plans");
+        dataSource = new RecordingDataSource(database);
+    }
+
+    @Test
+    public void hotQueries_shouldNotScanWholeTables_inH2() throws SQLException
+    {
+        runEveryDaoMethod();
+
+        List<String> scans = new ArrayList<>();
+        try (Connection connection = database.getConnection())
+        {
+            for (Map.Entry<String, List<Object>> statement : executed.entrySet())
+            {
+                String sql = statement.getKey().strip();
+                if (sql.startsWith("INSERT") || FULL_SCANS_ALLOWED.contains(sql))
+                    continue;
+
+                String plan = explain(connection, sql, statement.getValue());
+                if (plan.contains(".tableScan"))
+                    scans.add(sql + "\n" + plan);
+            }
+        }
+
+        assertTrue(executed.size() > 20, "Because every DAO method should have been recorded.");
+        if (!scans.isEmpty())
+            fail("Full table scans:\n\n" + String.join("\n\n", scans));
+    }
+
+    private void runEveryDaoMethod()
+    {
+        MySqlProductDao productDao = new MySqlProductDao(dataSource);
+        MySqlCategoryDao categoryDao = new MySqlCategoryDao(dataSource);
+        MySqlUserDao userDao = new MySqlUserDao(dataSource, new BCryptPasswordEncoder(4));
+        MySqlProfileDao profileDao = new MySqlProfileDao(dataSource);
+        MySqlShoppingCartDao shoppingCartDao = new MySqlShoppingCartDao(dataSource);
+        MySqlOrdersDao ordersDao = new MySqlOrdersDao(dataSource, profileDao);
+
+        productDao.search(1, null, null, null, null, 100);
+        productDao.search(1, new BigDecimal("10"), new BigDecimal("500"), null, null, 100);
+        productDao.search(null, new BigDecimal("10"), new BigDecimal("500"), null, null, 100);
+        productDao.search(null, null, null, "Black", null, 100);
+        productDao.search(null, null, null, null, 1, 2);
+        productDao.search(1, null, null, null, 1, 2);
+        productDao.searchEach(1, null, null, null, 100, product -> { });
+        productDao.listByCategoryId(1, null, 100);
+        productDao.listByCategoryId(1, 1, 2);
+        productDao.getById(1);
+        productDao.getByIds(List.of(1, 2));
+        Product product = productDao.create(new Product(0, "Tablet", new BigDecimal("199.99"), 1, "", "Black", 5, false, ""));
+        productDao.update(product.getProductId(), product);
+        productDao.patch(product.getProductId(), product, Set.of("stock"));
+        productDao.delete(product.getProductId());
+
+        categoryDao.getAllCategories();
+        categoryDao.getById(1);
+        Category category = categoryDao.create(new Category(0, "Books", ""));
+        categoryDao.update(category.getCategoryId(), category);
+        categoryDao.delete(category.getCategoryId());
+
+        User user = userDao.create(new User(0, "planner", "password", "ROLE_USER"));
+        userDao.getAll();
+        userDao.getUserById(user.getId());
+        userDao.getByUserName("planner");
+        userDao.exists("planner");
+
+        Profile profile = new Profile(user.getId(), "Plan", "Ner", "800-555-0000", "plan@email.com", "1 Main St", "Dallas", "TX", "75001");
+        profileDao.create(profile);
+        profileDao.update(user.getId(), profile);
+        profileDao.patch(user.getId(), profile, Set.of("phone"));
+        profileDao.getProfile(user.getId());
+
+        shoppingCartDao.addItem(user.getId(), 1);
+        shoppingCartDao.updateQuantity(user.getId(), 1, 3);
+        shoppingCartDao.getByUserId(user.getId());
+        ordersDao.create(user.getId());
+        shoppingCartDao.deleteCart(user.getId());
+    }
+
+    private static String explain(Connection connection, String sql, List<Object> parameters) throws SQLException
+    {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql))
+        {
+            for (int i = 0; i < parameters.size(); i++)
+            {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet plan = statement.executeQuery())
+            {
+                plan.next();
+                return plan.getString(1);
+            }
+        }
+    }
+
+    /**
+     * Hands out connections whose prepared statements remember their SQL and the
+     * parameters of their last execution.
+     */
+    private class RecordingDataSource implements DataSource
+    {
+        private final DataSource target;
+
+        RecordingDataSource(DataSource target)
+        {
+            this.target = target;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException
+        {
+            return record(target.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException
+        {
+            return record(target.getConnection(username, password));
+        }
+
+        private Connection record(Connection connection)
+        {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement"))
+                            return record(statement, (String) args[0]);
+                        return result;
+                    });
+        }
+
+        private PreparedStatement record(PreparedStatement statement, String sql)
+        {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index)
+                            parameters.put(index, name.equals("setNull") ? null : args[1]);
+                        else if (name.startsWith("execute"))
+                            executed.put(sql, new ArrayList<>(parameters.values()));
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private Object invoke(Object target, Method method, Object[] args) throws Throwable
+        {
+            try
+            {
+                return method.invoke(target, args);
+            }
+            catch (InvocationTargetException e)
+            {
+                throw e.getCause();
+            }
+        }
+
+        @Override
+        public PrintWriter getLogWriter() throws SQLException
+        {
+            return target.getLogWriter();
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) throws SQLException
+        {
+            target.setLogWriter(out);
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) throws SQLException
+        {
+            target.setLoginTimeout(seconds);
+        }
+
+        @Override
+        public int getLoginTimeout() throws SQLException
+        {
+            return target.getLoginTimeout();
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException
+        {
+            return target.getParentLogger();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> type) throws SQLException
+        {
+            return target.unwrap(type);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> type) throws SQLException
+        {
+            return target.isWrapperFor(type);
+        }
+    }
+}
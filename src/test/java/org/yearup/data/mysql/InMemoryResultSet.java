@@ -0,0 +1,68 @@
+package org.yearup.data.mysql;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A forward-only ResultSet over in-memory rows, for exercising row mappers without a database.
+ * Label lookups go through a hash map on every call, like Connector/J's findColumn does.
+ */
+final class InMemoryResultSet
+{
+    private InMemoryResultSet()
+    {
+    }
+
+    static ResultSet of(String[] labels, Object[][] rows)
+    {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < labels.length; i++)
+        {
+            columns.put(labels[i], i + 1);
+        }
+        int[] cursor = {-1};
+
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName())
+                    {
+                        case "next":
+                            return ++cursor[0] < rows.length;
+                        case "beforeFirst":
+                            cursor[0] = -1;
+                            return null;
+                        case "close":
+                            return null;
+                        case "findColumn":
+                            return findColumn(columns, (String) args[0]);
+                        case "getInt":
+                        case "getString":
+                        case "getBigDecimal":
+                        case "getBoolean":
+                            int column = args[0] instanceof String label ? findColumn(columns, label) : (Integer) args[0];
+                            Object value = rows[cursor[0]][column - 1];
+                            return switch (method.getName())
+                            {
+                                case "getInt" -> value == null ? 0 : ((Number) value).intValue();
+                                case "getBigDecimal" -> (BigDecimal) value;
+                                case "getBoolean" -> value != null && (Boolean) value;
+                                default -> value == null ? null : value.toString();
+                            };
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static int findColumn(Map<String, Integer> columns, String label) throws SQLException
+    {
+        Integer column = columns.get(label);
+        if (column == null)
+            throw new SQLException("Column '" + label + "' not found.");
+        return column;
+    }
+}
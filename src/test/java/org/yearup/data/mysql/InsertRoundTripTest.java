@@ -0,0 +1,96 @@
+package org.yearup.data.mysql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.yearup.data.H2Database;
+import org.yearup.data.timing.StatementStatistics;
+import org.yearup.data.timing.StatementSummary;
+import org.yearup.data.timing.TimingDataSource;
+import org.yearup.models.Category;
+import org.yearup.models.Product;
+import org.yearup.models.User;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that creates answer from the insert and its generated key, with no SELECT,
+ * and that what they return matches what a later read finds.
+ */
+class InsertRoundTripTest
+{
+    private StatementStatistics statistics;
+    private DataSource dataSource;
+
+    @BeforeEach
+    public void setup()
+    {
+        statistics = new StatementStatistics(new SimpleMeterRegistry(), Duration.ofSeconds(10));
+        dataSource = new TimingDataSource(H2Database.create("inserts"), statistics);
+    }
+
+    @Test
+    public void productCreate_shouldNotReadBack()
+    {
+        MySqlProductDao productDao = new MySqlProductDao(dataSource);
+
+        Product created = productDao.create(new Product(0, "Tablet", new BigDecimal("199.999"), 1, "A tablet.", "Black", 5, true, "tablet.jpg"));
+
+        assertEquals(List.of("INSERT"), statementKinds());
+        assertProduct(productDao.getById(created.getProductId()), created);
+    }
+
+    @Test
+    public void categoryCreate_shouldNotReadBack()
+    {
+        MySqlCategoryDao categoryDao = new MySqlCategoryDao(dataSource);
+
+        Category created = categoryDao.create(new Category(0, "Books", "Things to read."));
+
+        assertEquals(List.of("INSERT"), statementKinds());
+        Category read = categoryDao.getById(created.getCategoryId());
+        assertEquals(read.getName(), created.getName());
+        assertEquals(read.getDescription(), created.getDescription());
+    }
+
+    @Test
+    public void userCreate_shouldNotReadBack()
+    {
+        MySqlUserDao userDao = new MySqlUserDao(dataSource, new BCryptPasswordEncoder(4));
+
+        User created = userDao.create(new User(0, "reader", "password", "ROLE_USER"));
+
+        assertEquals(List.of("INSERT"), statementKinds());
+        User read = userDao.getByUserName("reader");
+        assertEquals(read.getId(), created.getId());
+        assertEquals(read.getRole(), created.getRole());
+        assertEquals("", created.getPassword());
+    }
+
+    private List<String> statementKinds()
+    {
+        return statistics.top(10).stream()
+                .map(StatementSummary::sql)
+                .map(sql -> sql.substring(0, sql.indexOf(' ')))
+                .toList();
+    }
+
+    private static void assertProduct(Product expected, Product actual)
+    {
+        assertEquals(expected.getProductId(), actual.getProductId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getPrice(), actual.getPrice());
+        assertEquals(expected.getCategoryId(), actual.getCategoryId());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getSubCategory(), actual.getSubCategory());
+        assertEquals(expected.getStock(), actual.getStock());
+        assertEquals(expected.isFeatured(), actual.isFeatured());
+        assertEquals(expected.getImageUrl(), actual.getImageUrl());
+    }
+}
@@ -0,0 +1,83 @@
+package org.yearup.data.mysql;
+
+import org.junit.jupiter.api.Test;
+import org.yearup.data.Deadline;
+import org.yearup.data.DeadlineExceededException;
+import org.yearup.data.H2Database;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MySqlDaoBaseDeadlineTest
+{
+    // a cross join big enough to run far longer than the deadline
+    private static final String SLOW_QUERY = "SELECT COUNT(*) FROM SYSTEM_RANGE(1, 100000) a, SYSTEM_RANGE(1, 100000) b";
+
+    private static class Dao extends MySqlDaoBase
+    {
+        Dao(DataSource dataSource)
+        {
+            super(dataSource);
+        }
+    }
+
+    @Test
+    public void statements_shouldTimeOut_atTheRequestDeadline() throws SQLException
+    {
+        Dao dao = new Dao(H2Database.create("deadline"));
+
+        long start = System.nanoTime();
+        try (Deadline.Scope ignored = Deadline.start(Duration.ofMillis(800));
+             Connection connection = dao.getReadConnection();
+             PreparedStatement statement = connection.prepareStatement(SLOW_QUERY))
+        {
+            assertEquals(1, statement.getQueryTimeout());
+            assertThrows(SQLTimeoutException.class, statement::executeQuery);
+        }
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5000);
+    }
+
+    @Test
+    public void statements_shouldHaveNoTimeout_outsideARequest() throws SQLException
+    {
+        Dao dao = new Dao(H2Database.create("deadline"));
+
+        try (Connection connection = dao.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT 1"))
+        {
+            assertEquals(0, statement.getQueryTimeout());
+        }
+    }
+
+    @Test
+    public void getConnection_shouldNotBorrow_afterTheDeadline() throws SQLException
+    {
+        DataSource dataSource = mock(DataSource.class);
+        Dao dao = new Dao(dataSource);
+
+        try (Deadline.Scope ignored = Deadline.start(Duration.ofMillis(-1)))
+        {
+            assertThrows(DeadlineExceededException.class, dao::getConnection);
+        }
+        verify(dataSource, never()).getConnection();
+    }
+
+    @Test
+    public void nestedDeadline_shouldNotExtendTheOuterOne()
+    {
+        try (Deadline.Scope outer = Deadline.start(Duration.ofMillis(500));
+             Deadline.Scope inner = Deadline.start(Duration.ofSeconds(60)))
+        {
+            assertTrue(Deadline.remaining().toMillis() <= 500);
+        }
+        assertFalse(Deadline.isSet());
+    }
+}
@@ -0,0 +1,125 @@
+package org.yearup.data.mysql;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.yearup.data.EmptyCartException;
+import org.yearup.data.ProfileDao;
+import org.yearup.models.Profile;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Counts the commits and database round trips a checkout costs for different cart sizes.
+ * Every executeQuery, executeUpdate, executeBatch and commit is one trip to the server; with
+ * rewriteBatchedStatements the line item batch goes out as a single multi-row INSERT.
+ */
+class MySqlOrdersDaoTest
+{
+    private static final int USER_ID = 3;
+
+    private final AtomicInteger roundTrips = new AtomicInteger();
+    private final AtomicInteger commits = new AtomicInteger();
+
+    private Connection connection;
+    private PreparedStatement statement;
+    private int cartSize;
+    private MySqlOrdersDao dao;
+
+    @BeforeEach
+    public void setup() throws SQLException
+    {
+        DataSource dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        ResultSet generatedKeys = mock(ResultSet.class);
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(connection.prepareStatement(anyString(), anyInt())).thenReturn(statement);
+        when(statement.getGeneratedKeys()).thenReturn(generatedKeys);
+        when(generatedKeys.next()).thenReturn(true);
+        when(generatedKeys.getInt(1)).thenReturn(42);
+
+        when(statement.executeQuery()).thenAnswer(invocation -> { roundTrips.incrementAndGet(); return lockedCartRows(); });
+        when(statement.executeUpdate()).thenAnswer(invocation -> { roundTrips.incrementAndGet(); return 1; });
+        when(statement.executeBatch()).thenAnswer(invocation -> { roundTrips.incrementAndGet(); return new int[0]; });
+        doAnswer(invocation -> { roundTrips.incrementAndGet(); commits.incrementAndGet(); return null; })
+                .when(connection).commit();
+
+        ProfileDao profileDao = mock(ProfileDao.class);
+        when(profileDao.getProfile(USER_ID)).thenReturn(new Profile(USER_ID, "George", "Jetson", "800-555-1212",
+                "george@jetson.com", "123 Sky Way", "Orbit City", "CA", "90210"));
+
+        dao = new MySqlOrdersDao(dataSource, profileDao);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    public void create_shouldCommitOnce_withConstantRoundTrips(int cartSize) throws SQLException
+    {
+        // arrange
+        this.cartSize = cartSize;
+
+        // act
+        var order = dao.create(USER_ID);
+
+        // assert
+        assertEquals(42, order.getOrderId());
+        assertEquals(1, commits.get(), "Because the whole checkout is one unit of work.");
+        assertEquals(5, roundTrips.get(), "Because the cart lock, the order, the line item batch, the cart delete and the commit are one trip each.");
+        // every line item insert and cart row delete rides in a batch instead of its own trip
+        verify(statement, times(2 * cartSize)).addBatch();
+        // the line items come from the locked rows, at the locked quantity and price
+        verify(statement, times(cartSize)).setBigDecimal(3, new BigDecimal("9.99"));
+        verify(statement, times(cartSize)).setInt(4, 2);
+        verify(connection, never()).rollback();
+        verify(connection).setAutoCommit(false);
+        verify(connection).setAutoCommit(true);
+    }
+
+    @Test
+    public void create_shouldNotCreateAnOrder_whenTheLockedCartIsEmpty() throws SQLException
+    {
+        // arrange: nothing left to lock, as when another checkout ordered the cart first
+        this.cartSize = 0;
+
+        // act
+        assertThrows(EmptyCartException.class, () -> dao.create(USER_ID));
+
+        // assert
+        assertEquals(1, roundTrips.get(), "Because only the cart lock should run.");
+        assertEquals(0, commits.get());
+        verify(statement, never()).executeUpdate();
+        verify(connection).rollback();
+        verify(connection).setAutoCommit(true);
+    }
+
+    /**
+     * The rows the checkout's SELECT ... FOR UPDATE sees: two of each product in the cart.
+     */
+    private ResultSet lockedCartRows() throws SQLException
+    {
+        ResultSet rows = mock(ResultSet.class);
+        AtomicInteger row = new AtomicInteger();
+        when(rows.next()).thenAnswer(invocation -> row.incrementAndGet() <= cartSize);
+        when(rows.getInt("product_id")).thenAnswer(invocation -> row.get());
+        when(rows.getInt("quantity")).thenReturn(2);
+        when(rows.getBigDecimal("price")).thenReturn(new BigDecimal("9.99"));
+        return rows;
+    }
+}
@@ -7,8 +7,10 @@ import org.yearup.models.Product;
 
 import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class MySqlProductDaoTest extends BaseDaoTestClass
 {
@@ -45,4 +47,30 @@ class MySqlProductDaoTest extends BaseDaoTestClass
         assertEquals(expected.getPrice(), actual.getPrice(), "Because I tried to get product 1 from the database.");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void getByIds_shouldReturn_everyRequestedProduct()
+    {
+        // arrange
+        List<Integer> productIds = List.of(1, 3, 12);
+
+        // act
+        var actual = dao.getByIds(productIds);
+
+        // assert
+        assertEquals(3, actual.size(), "Because I asked for three existing products in one lookup.");
+        assertTrue(actual.stream().allMatch(p -> productIds.contains(p.getProductId())), "Because only the requested ids should come back.");
+    }
+
+    @Test
+    public void search_shouldPage_afterTheCursor()
+    {
+        // act
+        var firstPage = dao.search(2, null, null, null, null, 3);
+        var secondPage = dao.search(2, null, null, null, firstPage.get(2).getProductId(), 3);
+
+        // assert
+        assertEquals(List.of(4, 5, 6), firstPage.stream().map(Product::getProductId).toList(), "Because category 2 starts at product 4.");
+        assertEquals(List.of(7, 8, 9), secondPage.stream().map(Product::getProductId).toList(), "Because the second page starts after the cursor.");
+    }
+
+}
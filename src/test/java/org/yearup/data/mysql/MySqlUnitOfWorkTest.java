@@ -0,0 +1,201 @@
+package org.yearup.data.mysql;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.yearup.models.Profile;
+import org.yearup.models.User;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Counts pool checkouts for the checkout, cart and register flows with and without a unit of work,
+ * against a stubbed data source that answers each query with canned rows.
+ */
+class MySqlUnitOfWorkTest
+{
+    private static final String[] CART_COLUMNS = {"product_id", "name", "price", "category_id", "description", "subcategory", "stock", "featured", "image_url", "quantity"};
+    private static final String[] PROFILE_COLUMNS = {"user_id", "first_name", "last_name", "phone", "email", "address", "city", "state", "zip"};
+    private static final String[] USER_COLUMNS = {"user_id", "username", "hashed_password", "role"};
+
+    private final List<Connection> checkouts = new ArrayList<>();
+    private boolean userInserted;
+
+    private DataSource dataSource;
+    private MySqlUnitOfWork unitOfWork;
+    private MySqlShoppingCartDao shoppingCartDao;
+    private MySqlProfileDao profileDao;
+    private MySqlUserDao userDao;
+    private MySqlOrdersDao ordersDao;
+
+    @BeforeEach
+    public void setup() throws SQLException
+    {
+        dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> {
+            Connection connection = connection();
+            checkouts.add(connection);
+            return connection;
+        });
+
+        unitOfWork = new MySqlUnitOfWork(dataSource);
+        shoppingCartDao = new MySqlShoppingCartDao(dataSource);
+        profileDao = new MySqlProfileDao(dataSource);
+        userDao = new MySqlUserDao(dataSource, new BCryptPasswordEncoder(4));
+        ordersDao = new MySqlOrdersDao(dataSource, profileDao);
+    }
+
+    @Test
+    public void checkout_shouldUseOneConnection_inAUnitOfWork() throws SQLException
+    {
+        int without = checkouts(() -> ordersDao.create(1));
+        int with = checkouts(() -> unitOfWork.execute(() -> ordersDao.create(1)));
+
+        assertEquals(2, without);
+        assertEquals(1, with);
+        verify(checkouts.get(0), times(1)).commit();
+    }
+
+    @Test
+    public void cartAdd_shouldUseOneConnection_inAUnitOfWork()
+    {
+        Supplier<Object> addAndReload = () -> {
+            shoppingCartDao.addItem(1, 1);
+            return shoppingCartDao.getByUserId(1);
+        };
+
+        int without = checkouts(addAndReload);
+        int with = checkouts(() -> unitOfWork.execute(addAndReload));
+
+        assertEquals(2, without);
+        assertEquals(1, with);
+    }
+
+    @Test
+    public void register_shouldUseOneConnection_inAUnitOfWork()
+    {
+        Supplier<Object> register = () -> {
+            if (userDao.exists("newuser"))
+                throw new IllegalStateException("exists");
+            User user = userDao.create(new User(0, "newuser", "password", "USER"));
+            Profile profile = new Profile();
+            profile.setUserId(user.getId());
+            return profileDao.create(profile);
+        };
+
+        int without = checkouts(register);
+        userInserted = false;
+        int with = checkouts(() -> unitOfWork.execute(register));
+
+        assertEquals(3, without);
+        assertEquals(1, with);
+    }
+
+    @Test
+    public void execute_shouldRollBack_whenTheWorkThrows() throws SQLException
+    {
+        assertThrows(IllegalStateException.class, () -> unitOfWork.run(() -> {
+            shoppingCartDao.addItem(1, 1);
+            throw new IllegalStateException("boom");
+        }));
+
+        Connection connection = checkouts.get(0);
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(connection).close();
+    }
+
+    @Test
+    public void execute_shouldNotCommit_whenTheWorkSwallowsARollback() throws SQLException
+    {
+        // act: a DAO call fails and rolls the unit back, and the work carries on regardless
+        RuntimeException e = assertThrows(RuntimeException.class, () -> unitOfWork.execute(() -> {
+            shoppingCartDao.addItem(1, 1);
+            try
+            {
+                MySqlUnitOfWork.currentConnection(dataSource).rollback();
+            }
+            catch (SQLException ignored)
+            {
+            }
+            return null;
+        }));
+
+        // assert
+        assertInstanceOf(SQLException.class, e.getCause());
+        Connection connection = checkouts.get(0);
+        verify(connection, never()).commit();
+        verify(connection).close();
+    }
+
+    @Test
+    public void execute_shouldReturnTheConnection_whenResettingAutoCommitFails() throws SQLException
+    {
+        // arrange: a connection that broke during the unit
+        Connection broken = connection();
+        doThrow(new SQLException("Communications link failure", "08S01")).when(broken).setAutoCommit(true);
+        when(dataSource.getConnection()).thenReturn(broken);
+
+        // act
+        unitOfWork.run(() -> shoppingCartDao.addItem(1, 1));
+
+        // assert
+        verify(broken).commit();
+        verify(broken).close();
+    }
+
+    private int checkouts(Supplier<Object> flow)
+    {
+        checkouts.clear();
+        flow.get();
+        return checkouts.size();
+    }
+
+    private Connection connection() throws SQLException
+    {
+        Connection connection = mock(Connection.class);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> statement(invocation.getArgument(0)));
+        when(connection.prepareStatement(anyString(), anyInt())).thenAnswer(invocation -> statement(invocation.getArgument(0)));
+        return connection;
+    }
+
+    private PreparedStatement statement(String sql) throws SQLException
+    {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenAnswer(invocation -> rowsFor(sql));
+        when(statement.executeUpdate()).thenAnswer(invocation -> {
+            if (sql.startsWith("INSERT INTO users"))
+                userInserted = true;
+            return 1;
+        });
+        when(statement.executeBatch()).thenReturn(new int[]{1});
+        when(statement.getGeneratedKeys()).thenAnswer(invocation -> InMemoryResultSet.of(new String[]{"id"}, new Object[][]{{42}}));
+        return statement;
+    }
+
+    private ResultSet rowsFor(String sql)
+    {
+        if (sql.contains("shopping_cart"))
+            return InMemoryResultSet.of(CART_COLUMNS, new Object[][]{{1, "Smartphone", new BigDecimal("499.99"), 1, "", "Black", 50, false, "", 2}});
+        if (sql.contains("profiles"))
+            return InMemoryResultSet.of(PROFILE_COLUMNS, new Object[][]{{1, "Joe", "Joesephus", "800-555-1234", "joe@email.com", "789 Oak Avenue", "Dallas", "TX", "75051"}});
+        if (sql.contains("users"))
+            return InMemoryResultSet.of(USER_COLUMNS, userInserted ? new Object[][]{{42, "newuser", "hash", "ROLE_USER"}} : new Object[0][]);
+
+        throw new IllegalArgumentException(sql);
+    }
+}
@@ -0,0 +1,94 @@
+package org.yearup.data.mysql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yearup.data.H2Database;
+import org.yearup.data.timing.StatementStatistics;
+import org.yearup.data.timing.StatementSummary;
+import org.yearup.data.timing.TimingDataSource;
+import org.yearup.models.Product;
+import org.yearup.models.Profile;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartialUpdateTest
+{
+    private StatementStatistics statistics;
+    private DataSource dataSource;
+
+    @BeforeEach
+    public void setup()
+    {
+        statistics = new StatementStatistics(new SimpleMeterRegistry(), Duration.ofSeconds(10));
+        dataSource = new TimingDataSource(H2Database.create("patches"), statistics);
+    }
+
+    @Test
+    public void productPatch_shouldOnlyWrite_theSuppliedColumns()
+    {
+        // arrange
+        MySqlProductDao productDao = new MySqlProductDao(dataSource);
+        Product before = productDao.getById(1);
+        Product changes = new Product();
+        changes.setStock(7);
+
+        // act
+        boolean patched = productDao.patch(1, changes, Set.of("stock"));
+
+        // assert
+        assertTrue(patched);
+        assertTrue(statistics.top(10).stream()
+                .map(StatementSummary::sql)
+                .anyMatch(sql -> sql.equals("UPDATE products SET stock = ? WHERE product_id = ?")));
+
+        Product after = productDao.getById(1);
+        assertEquals(7, after.getStock());
+        assertEquals(before.getName(), after.getName());
+        assertEquals(before.getPrice(), after.getPrice());
+        assertEquals(before.getDescription(), after.getDescription());
+    }
+
+    @Test
+    public void productPatch_shouldReturnFalse_forAMissingProduct()
+    {
+        MySqlProductDao productDao = new MySqlProductDao(dataSource);
+
+        assertFalse(productDao.patch(999, new Product(), Set.of("stock")));
+    }
+
+    @Test
+    public void productPatch_shouldReject_unknownFields()
+    {
+        MySqlProductDao productDao = new MySqlProductDao(dataSource);
+
+        var ex = assertThrows(IllegalArgumentException.class, () -> productDao.patch(1, new Product(), Set.of("productId")));
+
+        assertEquals("productId can't be updated.", ex.getMessage());
+        assertTrue(statistics.top(10).isEmpty(), "Because nothing should reach the database.");
+    }
+
+    @Test
+    public void profilePatch_shouldOnlyChange_theSuppliedColumns()
+    {
+        // arrange
+        MySqlProfileDao profileDao = new MySqlProfileDao(dataSource);
+        Profile before = profileDao.getProfile(1);
+        Profile changes = new Profile();
+        changes.setPhone("800-555-0199");
+
+        // act
+        profileDao.patch(1, changes, Set.of("phone"));
+
+        // assert
+        Profile after = profileDao.getProfile(1);
+        assertEquals("800-555-0199", after.getPhone());
+        assertEquals(before.getFirstName(), after.getFirstName());
+        assertEquals(before.getEmail(), after.getEmail());
+        assertEquals(before.getZip(), after.getZip());
+    }
+}
@@ -0,0 +1,70 @@
+package org.yearup.data.mysql;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Runs EXPLAIN on the SQL that MySqlProductDao.search builds and checks which index MySQL picks.
+ */
+class ProductSearchExplainTest extends BaseDaoTestClass
+{
+    @Test
+    public void searchByCategoryAndPrice_shouldUse_categoryPriceIndex() throws SQLException
+    {
+        // arrange
+        QueryBuilder query = new QueryBuilder("SELECT * FROM products")
+                .where("category_id = ?", 2)
+                .where("price >= ?", new BigDecimal("40"))
+                .where("price <= ?", new BigDecimal("70"));
+
+        // act
+        QueryPlan plan = explain(query);
+
+        // assert
+        assertEquals("idx_products_category_price", plan.key, "Because category and price filters should use the composite index.");
+        assertNotEquals("ALL", plan.type, "Because a filtered search should not scan the whole table.");
+    }
+
+    @Test
+    public void searchBySubCategoryAndPrice_shouldUse_subCategoryPriceIndex() throws SQLException
+    {
+        // arrange
+        QueryBuilder query = new QueryBuilder("SELECT * FROM products")
+                .where("subcategory = ?", "Blue")
+                .where("price <= ?", new BigDecimal("100"));
+
+        // act
+        QueryPlan plan = explain(query);
+
+        // assert
+        assertEquals("idx_products_subcategory_price", plan.key, "Because subcategory and price filters should use the composite index.");
+        assertNotEquals("ALL", plan.type, "Because a filtered search should not scan the whole table.");
+    }
+
+    private QueryPlan explain(QueryBuilder query) throws SQLException
+    {
+        Connection connection = dataSource.getConnection();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.toSql()))
+        {
+            for (int i = 0; i < query.getParameters().size(); i++)
+            {
+                statement.setObject(i + 1, query.getParameters().get(i));
+            }
+            try (ResultSet row = statement.executeQuery())
+            {
+                row.next();
+                return new QueryPlan(row.getString("type"), row.getString("key"));
+            }
+        }
+    }
+
+    private record QueryPlan(String type, String key) {}
+}
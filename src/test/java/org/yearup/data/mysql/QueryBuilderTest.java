@@ -0,0 +1,43 @@
+package org.yearup.data.mysql;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryBuilderTest
+{
+    @Test
+    public void toSql_shouldOnlyEmit_suppliedPredicates()
+    {
+        // arrange
+        QueryBuilder query = new QueryBuilder("SELECT * FROM products")
+                .where("category_id = ?", 1)
+                .where("price >= ?", null)
+                .where("price <= ?", new BigDecimal("100"))
+                .where("subcategory = ?", null);
+
+        // act
+        String sql = query.toSql();
+
+        // assert
+        assertEquals("SELECT * FROM products WHERE category_id = ? AND price <= ?", sql);
+        assertEquals(List.of(1, new BigDecimal("100")), query.getParameters());
+    }
+
+    @Test
+    public void toSql_shouldOmitWhere_whenNothingIsSupplied()
+    {
+        // arrange
+        QueryBuilder query = new QueryBuilder("SELECT * FROM products")
+                .where("category_id = ?", null);
+
+        // act
+        String sql = query.toSql();
+
+        // assert
+        assertEquals("SELECT * FROM products", sql);
+    }
+}
@@ -0,0 +1,109 @@
+package org.yearup.data.mysql;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.yearup.models.Category;
+import org.yearup.models.Product;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation of the shared column-index row mappers against the per-row,
+ * label-based mappers the DAOs used before. Run the main method (it adds the GC profiler),
+ * or run org.openjdk.jmh.Main on the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark
+{
+    private static final String[] PRODUCT_COLUMNS = {"product_id", "name", "price", "category_id", "description", "subcategory", "image_url", "stock", "featured"};
+    private static final String[] CATEGORY_COLUMNS = {"category_id", "name", "description"};
+
+    @Param({"1", "100"})
+    public int rows;
+
+    private ResultSet products;
+    private ResultSet categories;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        Object[][] productRows = new Object[rows][];
+        Object[][] categoryRows = new Object[rows][];
+        for (int i = 0; i < rows; i++)
+        {
+            productRows[i] = new Object[]{i + 1, "Product " + i, new BigDecimal("19.99"), 1, "A product", "Black", "product.jpg", 10, false};
+            categoryRows[i] = new Object[]{i + 1, "Category " + i, "A category"};
+        }
+        products = InMemoryResultSet.of(PRODUCT_COLUMNS, productRows);
+        categories = InMemoryResultSet.of(CATEGORY_COLUMNS, categoryRows);
+    }
+
+    @Benchmark
+    public List<Product> productsByLabel() throws SQLException
+    {
+        products.beforeFirst();
+        List<Product> list = new ArrayList<>();
+        while (products.next())
+        {
+            list.add(new Product(products.getInt("product_id"), products.getString("name"), products.getBigDecimal("price"),
+                    products.getInt("category_id"), products.getString("description"), products.getString("subcategory"),
+                    products.getInt("stock"), products.getBoolean("featured"), products.getString("image_url")));
+        }
+        return list;
+    }
+
+    @Benchmark
+    public List<Product> productsByIndex() throws SQLException
+    {
+        products.beforeFirst();
+        return RowMappers.PRODUCT.mapAll(products);
+    }
+
+    @Benchmark
+    public List<Category> categoriesDoubleBrace() throws SQLException
+    {
+        categories.beforeFirst();
+        List<Category> list = new ArrayList<>();
+        while (categories.next())
+        {
+            int categoryId = categories.getInt("category_id");
+            String name = categories.getString("name");
+            String description = categories.getString("description");
+            list.add(new Category()
+            {{
+                setCategoryId(categoryId);
+                setName(name);
+                setDescription(description);
+            }});
+        }
+        return list;
+    }
+
+    @Benchmark
+    public List<Category> categoriesByIndex() throws SQLException
+    {
+        categories.beforeFirst();
+        return RowMappers.CATEGORY.mapAll(categories);
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder()
+                .include(RowMapperBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
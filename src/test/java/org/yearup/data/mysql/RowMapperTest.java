@@ -0,0 +1,57 @@
+package org.yearup.data.mysql;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowMapperTest
+{
+    @Test
+    public void mapAll_shouldMapProducts_byColumnLabel() throws SQLException
+    {
+        // arrange - columns deliberately out of table order
+        var resultSet = InMemoryResultSet.of(
+                new String[]{"name", "product_id", "price", "category_id", "description", "subcategory", "image_url", "stock", "featured"},
+                new Object[][]{
+                        {"Smartphone", 1, new BigDecimal("499.99"), 1, "A phone", "Black", "smartphone.jpg", 50, false},
+                        {"Laptop", 2, new BigDecimal("899.99"), 1, "A laptop", "Gray", "laptop.jpg", 30, true}
+                });
+
+        // act
+        var products = RowMappers.PRODUCT.mapAll(resultSet);
+
+        // assert
+        assertEquals(2, products.size());
+        assertEquals(2, products.get(1).getProductId());
+        assertEquals("Laptop", products.get(1).getName());
+        assertEquals(new BigDecimal("899.99"), products.get(1).getPrice());
+        assertEquals("laptop.jpg", products.get(1).getImageUrl());
+        assertTrue(products.get(1).isFeatured());
+    }
+
+    @Test
+    public void mapFirst_shouldReturnNull_whenThereAreNoRows() throws SQLException
+    {
+        // arrange
+        var resultSet = InMemoryResultSet.of(new String[]{"category_id", "name", "description"}, new Object[0][]);
+
+        // act
+        var category = RowMappers.CATEGORY.mapFirst(resultSet);
+
+        // assert
+        assertNull(category);
+    }
+
+    @Test
+    public void bind_shouldFail_whenAColumnIsMissing()
+    {
+        // arrange
+        var resultSet = InMemoryResultSet.of(new String[]{"user_id", "username"}, new Object[][]{{1, "user"}});
+
+        // act / assert
+        assertThrows(SQLException.class, () -> RowMappers.USER.mapAll(resultSet));
+    }
+}
@@ -0,0 +1,65 @@
+package org.yearup.data.mysql;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.yearup.data.H2Database;
+import org.yearup.data.cache.CachingProductDao;
+import org.yearup.models.Product;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * High-frequency stock changes followed by a product detail read, through the product
+ * cache: a full-row update (which evicts the cached product, so the read goes back to the
+ * database) against a stock-only patch (which writes one column and keeps the cached copy).
+ * Runs on an in-memory H2 database; run the main method, or run org.openjdk.jmh.Main on the
+ * test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockUpdateBenchmark
+{
+    private static final Set<String> STOCK = Set.of("stock");
+
+    private CachingProductDao productDao;
+    private int stock;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        productDao = new CachingProductDao(new MySqlProductDao(H2Database.create("stock-updates")), 1_000, Duration.ofMinutes(5));
+    }
+
+    @Benchmark
+    public Product fullUpdateThenRead()
+    {
+        Product product = new Product(productDao.getById(1));
+        product.setStock(++stock % 100);
+        productDao.update(1, product);
+        return productDao.getById(1);
+    }
+
+    @Benchmark
+    public Product stockPatchThenRead()
+    {
+        Product changes = new Product();
+        changes.setStock(++stock % 100);
+        productDao.patch(1, changes, STOCK);
+        return productDao.getById(1);
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder()
+                .include(StockUpdateBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,272 @@
+package org.yearup.data.routing;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yearup.data.cache.CachingProductDao;
+import org.yearup.data.mysql.MySqlProductDao;
+import org.yearup.models.Product;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReadWriteRoutingDataSourceTest
+{
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+    private String user;
+    private final Map<Connection, Duration> lag = new HashMap<>();
+
+    private DataSource primary;
+    private DataSource replica0;
+    private DataSource replica1;
+    private Connection primaryConnection;
+    private Connection replica0Connection;
+    private Connection replica1Connection;
+
+    @BeforeEach
+    public void setup() throws SQLException
+    {
+        primary = mock(DataSource.class);
+        replica0 = mock(DataSource.class);
+        replica1 = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        replica0Connection = mock(Connection.class);
+        replica1Connection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        PreparedStatement primaryStatement = mock(PreparedStatement.class);
+        when(primaryConnection.prepareStatement(anyString())).thenReturn(primaryStatement);
+        when(replica0.getConnection()).thenReturn(replica0Connection);
+        when(replica1.getConnection()).thenReturn(replica1Connection);
+    }
+
+    @Test
+    public void getReadConnection_shouldRoundRobinOverReplicas() throws SQLException
+    {
+        ReadWriteRoutingDataSource routing = routing(replica0, replica1);
+
+        assertSame(replica0Connection, routing.getReadConnection());
+        assertSame(replica1Connection, routing.getReadConnection());
+        assertSame(replica0Connection, routing.getReadConnection());
+        assertSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    public void getReadConnection_shouldSkipFailedReplica_untilCooldownPasses() throws SQLException
+    {
+        ReadWriteRoutingDataSource routing = routing(replica0, replica1);
+        when(replica0.getConnection()).thenThrow(new SQLException("down", "08S01")).thenReturn(replica0Connection);
+
+        assertSame(replica1Connection, routing.getReadConnection());
+        assertEquals(1, routing.getHealthyReplicaCount());
+        assertSame(replica1Connection, routing.getReadConnection());
+        assertSame(replica1Connection, routing.getReadConnection());
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertEquals(2, routing.getHealthyReplicaCount());
+        assertEquals(Set.of(replica0Connection, replica1Connection), Set.of(routing.getReadConnection(), routing.getReadConnection()));
+    }
+
+    @Test
+    public void getReadConnection_shouldFallBackToPrimary_whenAllReplicasAreDown() throws SQLException
+    {
+        ReadWriteRoutingDataSource routing = routing(replica0);
+        // the way DBCP reports a failed connect: its own exception, with the driver's as the cause
+        when(replica0.getConnection()).thenThrow(new SQLException("Cannot create PoolableConnectionFactory", new SQLException("Communications link failure", "08S01")));
+
+        assertSame(primaryConnection, routing.getReadConnection());
+        assertSame(primaryConnection, routing.getReadConnection());
+        verify(replica0, times(1)).getConnection();
+    }
+
+    @Test
+    public void getReadConnection_shouldNotMarkReplicaDown_whenItsPoolIsBusy() throws SQLException
+    {
+        ReadWriteRoutingDataSource routing = routing(replica0, replica1);
+        when(replica0.getConnection()).thenThrow(new SQLException("Cannot get a connection, pool error Timeout waiting for idle object")).thenReturn(replica0Connection);
+
+        assertSame(replica1Connection, routing.getReadConnection());
+        assertEquals(2, routing.getHealthyReplicaCount());
+        assertSame(replica1Connection, routing.getReadConnection());
+        assertSame(replica0Connection, routing.getReadConnection());
+    }
+
+    @Test
+    public void getReadConnection_shouldSkipReplica_thatIsTooFarBehind() throws SQLException
+    {
+        ReadWriteRoutingDataSource routing = routing(replica0, replica1);
+        lag.put(replica0Connection, Duration.ofSeconds(30));
+
+        assertSame(replica1Connection, routing.getReadConnection());
+        verify(replica0Connection).close();
+        assertEquals(1, routing.getHealthyReplicaCount());
+        assertSame(replica1Connection, routing.getReadConnection());
+
+        // caught up by the time the cooldown passes
+        lag.put(replica0Connection, Duration.ofSeconds(1));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertEquals(Set.of(replica0Connection, replica1Connection), Set.of(routing.getReadConnection(), routing.getReadConnection()));
+    }
+
+    @Test
+    public void getReadConnection_shouldSkipReplica_whoseLagIsUnknown() throws SQLException
+    {
+        ReadWriteRoutingDataSource routing = routing(replica0);
+        lag.put(replica0Connection, null);
+
+        assertSame(primaryConnection, routing.getReadConnection());
+        assertEquals(0, routing.getHealthyReplicaCount());
+    }
+
+    @Test
+    public void getReadConnection_shouldUsePrimary_insideOnPrimary() throws SQLException
+    {
+        ReadWriteRoutingDataSource routing = routing(replica0);
+
+        Connection connection = ReadWriteRoutingDataSource.onPrimary(() -> {
+            try
+            {
+                return routing.getReadConnection();
+            }
+            catch (SQLException e)
+            {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertSame(primaryConnection, connection);
+        assertSame(replica0Connection, routing.getReadConnection());
+    }
+
+    @Test
+    public void getReadConnection_shouldStickToPrimary_afterTheUsersOwnWrite() throws SQLException
+    {
+        ReadWriteRoutingDataSource routing = routing(replica0);
+
+        user = "george";
+        routing.getConnection().prepareStatement("UPDATE products SET stock = ?").executeUpdate();
+        assertSame(primaryConnection, routing.getReadConnection());
+
+        user = "someone-else";
+        assertSame(replica0Connection, routing.getReadConnection());
+
+        user = "george";
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertSame(replica0Connection, routing.getReadConnection());
+    }
+
+    @Test
+    public void getReadConnection_shouldNotStickToPrimary_afterAReadOnlyPrimaryCheckout() throws SQLException
+    {
+        ReadWriteRoutingDataSource routing = routing(replica0);
+
+        // the cart and login lookups read through getConnection()
+        user = "george";
+        try (Connection connection = routing.getConnection())
+        {
+            connection.prepareStatement("SELECT * FROM shopping_cart WHERE user_id = ?").executeQuery();
+        }
+
+        assertSame(replica0Connection, routing.getReadConnection());
+    }
+
+    @Test
+    public void getReadConnection_shouldCloseTheReplicaConnection_whenTheLagCheckThrows() throws SQLException
+    {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, List.of(replica0), Duration.ofSeconds(5), Duration.ofSeconds(10), Duration.ofSeconds(3),
+                connection -> { throw new IllegalStateException("unexpected status row"); }, () -> user, ticker);
+
+        assertThrows(IllegalStateException.class, routing::getReadConnection);
+        verify(replica0Connection).close();
+    }
+
+    @Test
+    public void productDao_shouldReadFromReplica_andWriteToPrimary() throws SQLException
+    {
+        DataSource primaryDb = h2("primary");
+        DataSource replicaDb = h2("replica");
+        ReadWriteRoutingDataSource routing = routingTo(primaryDb, replicaDb);
+        MySqlProductDao productDao = new MySqlProductDao(routing);
+
+        user = "george";
+        assertEquals("replica", productDao.getById(1).getName());
+        assertEquals(List.of("replica"), productDao.search(1, null, null, null, null, 100).stream().map(Product::getName).toList());
+
+        Product changed = new Product(1, "updated", new BigDecimal("9.99"), 1, "", "", 1, false, "");
+        productDao.update(1, changed);
+
+        // the replica has not caught up, but george reads his own write from the primary
+        assertEquals("updated", productDao.getById(1).getName());
+
+        user = "someone-else";
+        assertEquals("replica", productDao.getById(1).getName());
+    }
+
+    @Test
+    public void cachingProductDao_shouldNotCacheAStaleReplicaRead_afterAWrite() throws SQLException
+    {
+        DataSource primaryDb = h2("primary");
+        DataSource replicaDb = h2("replica");
+        CachingProductDao productDao = new CachingProductDao(new MySqlProductDao(routingTo(primaryDb, replicaDb)), 100, Duration.ofMinutes(5), Duration.ofSeconds(5));
+
+        user = "george";
+        Product changed = new Product(1, "updated", new BigDecimal("9.99"), 1, "", "", 1, false, "");
+        productDao.update(1, changed);
+
+        // the miss that refills the cache reads the primary, so other users get the new row too
+        user = "someone-else";
+        assertEquals("updated", productDao.getById(1).getName());
+        assertEquals("updated", productDao.getById(1).getName());
+    }
+
+    private ReadWriteRoutingDataSource routing(DataSource... replicas)
+    {
+        return routingTo(primary, replicas);
+    }
+
+    private ReadWriteRoutingDataSource routingTo(DataSource primary, DataSource... replicas)
+    {
+        return new ReadWriteRoutingDataSource(primary, List.of(replicas), Duration.ofSeconds(5), Duration.ofSeconds(10), Duration.ofSeconds(3),
+                connection -> lag.getOrDefault(connection, Duration.ZERO), () -> user, ticker);
+    }
+
+    private static DataSource h2(String name) throws SQLException
+    {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing-" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement())
+        {
+            statement.execute("DROP TABLE IF EXISTS products");
+            statement.execute("""
+                    CREATE TABLE products (
+                        product_id INT PRIMARY KEY AUTO_INCREMENT,
+                        name VARCHAR(200), price DECIMAL(10, 2), category_id INT, description TEXT,
+                        subcategory VARCHAR(20), stock INT, featured BOOLEAN, image_url VARCHAR(200))
+                    """);
+            statement.execute("INSERT INTO products VALUES (1, '" + name + "', 1.00, 1, '', '', 1, FALSE, '')");
+        }
+        return dataSource;
+    }
+}
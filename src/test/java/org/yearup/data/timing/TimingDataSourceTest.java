@@ -0,0 +1,119 @@
+package org.yearup.data.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yearup.data.mysql.MySqlProductDao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingDataSourceTest
+{
+    private MeterRegistry meterRegistry;
+    private StatementStatistics statistics;
+    private TimingDataSource timingDataSource;
+    private MySqlProductDao productDao;
+
+    @BeforeEach
+    public void setup() throws SQLException
+    {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:timing;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2.getConnection();
+             Statement statement = connection.createStatement())
+        {
+            statement.execute("DROP TABLE IF EXISTS products");
+            statement.execute("""
+                    CREATE TABLE products (
+                        product_id INT PRIMARY KEY AUTO_INCREMENT,
+                        name VARCHAR(200), price DECIMAL(10, 2), category_id INT, description TEXT,
+                        subcategory VARCHAR(20), stock INT, featured BOOLEAN, image_url VARCHAR(200))
+                    """);
+            for (int i = 1; i <= 5; i++)
+            {
+                statement.execute("INSERT INTO products VALUES (" + i + ", 'product " + i + "', 1.00, " + (i % 2) + ", '', 'Red', 1, FALSE, '')");
+            }
+        }
+
+        meterRegistry = new SimpleMeterRegistry();
+        statistics = new StatementStatistics(meterRegistry, Duration.ofMillis(200));
+        timingDataSource = new TimingDataSource(h2, statistics);
+        productDao = new MySqlProductDao(timingDataSource);
+    }
+
+    @Test
+    public void normalize_shouldCollapseWhitespaceLiteralsAndInLists()
+    {
+        assertEquals("SELECT * FROM products WHERE product_id IN (?, ...) AND name = ? LIMIT ?",
+                StatementStatistics.normalize("SELECT *\n  FROM products WHERE product_id IN (?, ?,?) AND name = 'x''y' LIMIT 10"));
+        assertEquals("SELECT * FROM products WHERE product_id IN (?, ...)",
+                StatementStatistics.normalize("SELECT * FROM products WHERE product_id IN (?, ?)"));
+    }
+
+    @Test
+    public void statements_shouldBeCountedPerNormalizedSql_withRowsFetched()
+    {
+        productDao.getByIds(List.of(1, 2));
+        productDao.getByIds(List.of(1, 2, 3));
+        productDao.search(1, null, null, null, null, 100);
+        productDao.search(0, null, null, null, null, 100);
+        productDao.search(0, null, null, null, null, 100);
+
+        List<StatementSummary> top = statistics.top(10);
+
+        assertEquals(2, top.size());
+        StatementSummary byIds = summary(top, "SELECT * FROM products WHERE product_id IN (?, ...)");
+        assertEquals(2, byIds.executions());
+        assertEquals(5, byIds.rows());
+
+        StatementSummary byCategory = summary(top, "SELECT * FROM products WHERE category_id = ? ORDER BY product_id LIMIT ?");
+        assertEquals(3, byCategory.executions());
+        assertEquals(7, byCategory.rows());
+        assertTrue(byCategory.poolWaitMillis() > 0);
+
+        assertEquals(3, meterRegistry.get("db.statement").tag("sql", byCategory.sql()).timer().count());
+        assertTrue(top.get(0).totalMillis() >= top.get(1).totalMillis());
+    }
+
+    @Test
+    public void updates_shouldCountAffectedRows()
+    {
+        productDao.delete(5);
+
+        StatementSummary delete = statistics.top(1).get(0);
+        assertEquals("DELETE FROM products WHERE product_id = ?;", delete.sql());
+        assertEquals(1, delete.rows());
+    }
+
+    @Test
+    public void failedStatements_shouldStillBeRecorded() throws SQLException
+    {
+        try (Connection connection = timingDataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("INSERT INTO products (product_id, name) VALUES (?, 'duplicate')"))
+        {
+            statement.setInt(1, 1);
+            assertThrows(SQLException.class, statement::executeUpdate);
+        }
+
+        StatementSummary insert = statistics.top(1).get(0);
+        assertEquals(1, insert.executions());
+        assertEquals(1, insert.failures());
+        assertEquals(1, meterRegistry.get("db.statement").tag("sql", insert.sql()).timer().count());
+    }
+
+    private static StatementSummary summary(List<StatementSummary> statements, String sql)
+    {
+        return statements.stream().filter(s -> s.sql().equals(sql)).findFirst().orElseThrow();
+    }
+}
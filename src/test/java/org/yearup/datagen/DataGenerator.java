@@ -0,0 +1,334 @@
+package org.yearup.datagen;
+
+import java.math.BigDecimal;
+import java.sql.DriverManager;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fills the schema with a large synthetic store for scale testing: categories, products,
+ * users with profiles, shopping carts and historical orders. Ids are assigned explicitly and
+ * every table draws from its own random stream derived from the seed, so the same seed and
+ * sizes always produce exactly the same rows.
+ * <p>
+ * The data is skewed the way a real store is: a few categories hold most of the products,
+ * prices are log-normal around a per-category median, and a small share of products and users
+ * account for most cart items and orders.
+ * <pre>
+ * mvn -Pdatagen test -Ddatasource.url=jdbc:mysql://localhost:3306/easyshop -Ddatasource.username=root \
+ *     -Ddatasource.password=... [-Ddatagen.products=2000000 -Ddatagen.seed=42]
+ * mvn -Pdatagen test -Ddatagen.out-dir=target/datagen
+ * </pre>
+ * Existing rows in these tables are removed first. Every generated user's password is "password".
+ */
+public final class DataGenerator
+{
+    /** BCrypt hash of "password"; hashing per user would dominate the run. */
+    static final String PASSWORD_HASH = "$2a$10$iZpFLlMCNffd3my3UNamM.n2GepAenknMnjLN/JjC6mFSkEqreTce";
+
+    /** Order dates go back three years from here; fixed so the data doesn't depend on when it was generated. */
+    private static final LocalDateTime ORDER_HISTORY_END = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final int ORDER_HISTORY_SECONDS = 3 * 365 * 24 * 60 * 60;
+
+    private static final List<String> TABLES = List.of(
+            "order_line_items", "orders", "shopping_cart", "profiles", "users", "products", "categories");
+
+    private static final String[] ADJECTIVES = {
+            "Classic", "Deluxe", "Ultra", "Compact", "Pro", "Eco", "Vintage", "Smart", "Wireless", "Premium",
+            "Rugged", "Mini", "Max", "Retro", "Turbo", "Silent", "Portable", "Modular", "Heavy-Duty", "Slim"};
+    private static final String[] NOUNS = {
+            "Controller", "Headset", "Keyboard", "Mouse", "Console", "Monitor", "Chair", "Speaker", "Charger", "Cable",
+            "Backpack", "Lamp", "Kettle", "Jacket", "Sneaker", "Watch", "Camera", "Tripod", "Router", "Blender",
+            "Desk", "Mug", "Notebook", "Guitar", "Vinyl", "Game", "Puzzle", "Drone", "Tablet", "Printer"};
+    private static final String[] COLORS = {
+            "Black", "White", "Gray", "Silver", "Red", "Blue", "Green", "Yellow", "Orange", "Purple",
+            "Pink", "Brown", "Navy", "Teal", "Gold", "Beige", "Olive", "Maroon", "Coral", "Ivory",
+            "Mint", "Lime", "Plum", "Sand", "Slate"};
+    private static final String[] FINISHES = {
+            "", "Matte ", "Gloss ", "Light ", "Dark ", "Neon ", "Pastel ", "Metal ", "Satin ", "Soft ",
+            "Deep ", "Pale ", "Bright ", "Dusty ", "Frost ", "Camo ", "Two-Tone ", "Glitter ", "Stone ", "Wood "};
+    private static final String[] FIRST_NAMES = {
+            "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+            "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Carlos", "Karen",
+            "Wei", "Aisha", "Mateo", "Priya", "Noah", "Fatima", "Liam", "Yuki", "Omar", "Sofia"};
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+            "Lee", "Nguyen", "Patel", "Kim", "Chen", "Okafor", "Ivanov", "Rossi", "Silva", "Cohen"};
+    private static final String[] STREETS = {
+            "Oak", "Elm", "Maple", "Cedar", "Pine", "Birch", "Walnut", "Main", "Park", "Lake",
+            "Hill", "River", "Sunset", "Washington", "Lincoln", "Jackson", "Highland", "Meadow", "Forest", "Spring"};
+    private static final String[] STREET_TYPES = {"Street", "Avenue", "Road", "Lane", "Drive", "Court", "Parkway", "Way"};
+    private static final String[][] CITIES = {
+            {"Dallas", "TX", "752"}, {"Houston", "TX", "770"}, {"Austin", "TX", "787"}, {"New York", "NY", "100"},
+            {"Buffalo", "NY", "142"}, {"Los Angeles", "CA", "900"}, {"San Diego", "CA", "921"}, {"Oakland", "CA", "946"},
+            {"Chicago", "IL", "606"}, {"Phoenix", "AZ", "850"}, {"Seattle", "WA", "981"}, {"Denver", "CO", "802"},
+            {"Atlanta", "GA", "303"}, {"Miami", "FL", "331"}, {"Boston", "MA", "021"}, {"Detroit", "MI", "482"},
+            {"Portland", "OR", "972"}, {"Nashville", "TN", "372"}, {"Columbus", "OH", "432"}, {"Baltimore", "MD", "212"}};
+
+    private final GeneratorSettings settings;
+    private final String[] subcategories;
+
+    DataGenerator(GeneratorSettings settings)
+    {
+        this.settings = settings;
+        this.subcategories = subcategories(settings.subcategories());
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        GeneratorSettings settings = GeneratorSettings.fromSystemProperties();
+        try (RowSink sink = sink(settings))
+        {
+            new DataGenerator(settings).generate(sink);
+        }
+    }
+
+    private static RowSink sink(GeneratorSettings settings) throws Exception
+    {
+        if (settings.outDir() != null)
+            return new TsvRowSink(settings.outDir());
+        if (settings.url() == null)
+            throw new IllegalArgumentException("Set -Ddatasource.url to insert into a database, or -Ddatagen.out-dir to write files.");
+
+        return new JdbcRowSink(DriverManager.getConnection(settings.url(), settings.username(), settings.password()),
+                settings.batchRows());
+    }
+
+    void generate(RowSink sink) throws Exception
+    {
+        sink.clear(TABLES);
+        timed("categories", () -> categories(sink));
+        int[] priceCents = new int[settings.products() + 1];
+        timed("products", () -> products(sink, priceCents));
+        timed("users", () -> users(sink));
+        timed("profiles", () -> profiles(sink));
+        timed("shopping_cart", () -> carts(sink));
+        timed("orders", () -> orders(sink));
+        timed("order_line_items", () -> orderLineItems(sink, priceCents));
+    }
+
+    private void categories(RowSink sink) throws Exception
+    {
+        SplittableRandom random = random("categories");
+        try (RowSink.TableWriter categories = sink.table("categories", "category_id", "name", "description"))
+        {
+            for (int id = 1; id <= settings.categories(); id++)
+            {
+                String noun = pick(random, NOUNS);
+                categories.row(id, pick(random, ADJECTIVES) + " " + noun + "s " + id,
+                        "Everything in " + noun.toLowerCase() + "s, category " + id + ".");
+            }
+        }
+    }
+
+    /**
+     * @param priceCents filled with each product's price, indexed by product id, for the order lines
+     */
+    private void products(RowSink sink, int[] priceCents) throws Exception
+    {
+        SplittableRandom random = random("products");
+        // median price per category, log-uniform between $5 and $500
+        double[] medianPrice = new double[settings.categories() + 1];
+        for (int id = 1; id <= settings.categories(); id++)
+        {
+            medianPrice[id] = 5 * Math.pow(100, random.nextDouble());
+        }
+
+        try (RowSink.TableWriter products = sink.table("products",
+                "product_id", "name", "price", "category_id", "description", "subcategory", "image_url", "stock", "featured"))
+        {
+            for (int id = 1; id <= settings.products(); id++)
+            {
+                int categoryId = 1 + skewed(random, settings.categories());
+                int cents = price(random, medianPrice[categoryId]);
+                priceCents[id] = cents;
+
+                String noun = pick(random, NOUNS);
+                products.row(
+                        id,
+                        pick(random, ADJECTIVES) + " " + noun + " " + (1000 + random.nextInt(9000)),
+                        BigDecimal.valueOf(cents, 2),
+                        categoryId,
+                        "A " + noun.toLowerCase() + " from the synthetic catalog, item " + id + ".",
+                        subcategories[skewed(random, subcategories.length)],
+                        noun.toLowerCase() + "-" + id + ".jpg",
+                        random.nextInt(10) == 0 ? 0 : random.nextInt(500),
+                        random.nextInt(50) == 0);
+            }
+        }
+    }
+
+    private void users(RowSink sink) throws Exception
+    {
+        try (RowSink.TableWriter users = sink.table("users", "user_id", "username", "hashed_password", "role"))
+        {
+            for (int id = 1; id <= settings.users(); id++)
+            {
+                users.row(id, username(id), PASSWORD_HASH, "ROLE_USER");
+            }
+        }
+    }
+
+    private void profiles(RowSink sink) throws Exception
+    {
+        SplittableRandom random = random("profiles");
+        try (RowSink.TableWriter profiles = sink.table("profiles",
+                "user_id", "first_name", "last_name", "phone", "email", "address", "city", "state", "zip"))
+        {
+            for (int id = 1; id <= settings.users(); id++)
+            {
+                String[] city = pick(random, CITIES);
+                profiles.row(
+                        id,
+                        pick(random, FIRST_NAMES),
+                        pick(random, LAST_NAMES),
+                        String.format("800-555-%04d", random.nextInt(10000)),
+                        username(id) + "@example.com",
+                        street(random),
+                        city[0],
+                        city[1],
+                        city[2] + String.format("%02d", random.nextInt(100)));
+            }
+        }
+    }
+
+    private void carts(RowSink sink) throws Exception
+    {
+        SplittableRandom random = random("shopping_cart");
+        double share = Math.min(1.0, (double) settings.cartUsers() / Math.max(1, settings.users()));
+        BitSet inCart = new BitSet();
+        try (RowSink.TableWriter cart = sink.table("shopping_cart", "user_id", "product_id", "quantity"))
+        {
+            for (int userId = 1; userId <= settings.users(); userId++)
+            {
+                if (random.nextDouble() >= share)
+                    continue;
+
+                inCart.clear();
+                int items = 1 + random.nextInt(5);
+                for (int i = 0; i < items; i++)
+                {
+                    int productId = 1 + skewed(random, settings.products());
+                    if (inCart.get(productId))
+                        continue;
+
+                    inCart.set(productId);
+                    cart.row(userId, productId, 1 + random.nextInt(3));
+                }
+            }
+        }
+    }
+
+    private void orders(RowSink sink) throws Exception
+    {
+        SplittableRandom random = random("orders");
+        try (RowSink.TableWriter orders = sink.table("orders",
+                "order_id", "user_id", "date", "address", "city", "state", "zip", "shipping_amount"))
+        {
+            for (int id = 1; id <= settings.orders(); id++)
+            {
+                String[] city = pick(random, CITIES);
+                orders.row(
+                        id,
+                        1 + skewed(random, settings.users()),
+                        ORDER_HISTORY_END.minusSeconds(random.nextInt(ORDER_HISTORY_SECONDS)),
+                        street(random),
+                        city[0],
+                        city[1],
+                        city[2] + String.format("%02d", random.nextInt(100)),
+                        random.nextInt(3) == 0 ? BigDecimal.ZERO.setScale(2) : new BigDecimal("5.99"));
+            }
+        }
+    }
+
+    private void orderLineItems(RowSink sink, int[] priceCents) throws Exception
+    {
+        SplittableRandom random = random("order_line_items");
+        int id = 0;
+        try (RowSink.TableWriter lines = sink.table("order_line_items",
+                "order_line_item_id", "order_id", "product_id", "sales_price", "quantity", "discount"))
+        {
+            for (int orderId = 1; orderId <= settings.orders(); orderId++)
+            {
+                int items = 1 + random.nextInt(5);
+                for (int i = 0; i < items; i++)
+                {
+                    int productId = 1 + skewed(random, settings.products());
+                    lines.row(++id, orderId, productId, BigDecimal.valueOf(priceCents[productId], 2),
+                            1 + random.nextInt(3), BigDecimal.ZERO.setScale(2));
+                }
+            }
+        }
+    }
+
+    /**
+     * A separate stream per table, so changing one table's size doesn't reshuffle the others.
+     */
+    private SplittableRandom random(String table)
+    {
+        return new SplittableRandom(settings.seed() * 31 + table.hashCode());
+    }
+
+    /**
+     * Picks an index in [0, n) with a power-law bias towards low indexes: the first 10% of
+     * the range gets about 46% of the picks and the first 1% about 22%.
+     */
+    static int skewed(SplittableRandom random, int n)
+    {
+        return (int) (n * Math.pow(random.nextDouble(), 3));
+    }
+
+    /**
+     * A log-normal price around the median, in cents. Anything over $10 ends in .99.
+     */
+    static int price(SplittableRandom random, double median)
+    {
+        double dollars = median * Math.exp(0.75 * random.nextGaussian());
+        dollars = Math.max(0.99, Math.min(99_999.99, dollars));
+        if (dollars < 10)
+            return (int) Math.round(dollars * 100);
+
+        return (int) Math.floor(dollars) * 100 + 99;
+    }
+
+    static String username(int userId)
+    {
+        return "shopper" + userId;
+    }
+
+    private static String street(SplittableRandom random)
+    {
+        return (1 + random.nextInt(9999)) + " " + pick(random, STREETS) + " " + pick(random, STREET_TYPES);
+    }
+
+    private static String[] subcategories(int count)
+    {
+        String[] names = new String[Math.min(count, FINISHES.length * COLORS.length)];
+        for (int i = 0; i < names.length; i++)
+        {
+            names[i] = FINISHES[i / COLORS.length] + COLORS[i % COLORS.length];
+        }
+        return names;
+    }
+
+    private static <T> T pick(SplittableRandom random, T[] values)
+    {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static void timed(String table, Step step) throws Exception
+    {
+        long start = System.nanoTime();
+        step.run();
+        System.out.printf("%-18s %8d ms%n", table, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @FunctionalInterface
+    private interface Step
+    {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,149 @@
+package org.yearup.datagen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.yearup.data.H2Database;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataGeneratorTest
+{
+    private static final String FINGERPRINT = "SELECT"
+            + " (SELECT COUNT(*) FROM categories),"
+            + " (SELECT COUNT(*) FROM products),"
+            + " (SELECT SUM(price) FROM products),"
+            + " (SELECT SUM(LENGTH(name) * product_id) FROM products),"
+            + " (SELECT COUNT(*) FROM users),"
+            + " (SELECT SUM(LENGTH(address) * user_id) FROM profiles),"
+            + " (SELECT COUNT(*) FROM shopping_cart),"
+            + " (SELECT COUNT(*) FROM orders),"
+            + " (SELECT SUM(user_id * order_id) FROM orders),"
+            + " (SELECT COUNT(*) FROM order_line_items),"
+            + " (SELECT SUM(sales_price * product_id) FROM order_line_items)";
+
+    @Test
+    public void generate_shouldProduceTheSameRows_forTheSameSeed() throws Exception
+    {
+        // act
+        List<String> first = generate("datagen1", 7);
+        List<String> second = generate("datagen2", 7);
+        List<String> otherSeed = generate("datagen3", 8);
+
+        // assert
+        assertEquals(first, second);
+        assertNotEquals(first, otherSeed);
+        assertEquals(List.of("20", "2000"), first.subList(0, 2));
+        assertEquals("300", first.get(4));
+        assertEquals("400", first.get(7));
+    }
+
+    @Test
+    public void generate_shouldSkewProducts_towardsTheFirstCategories() throws Exception
+    {
+        // arrange
+        DataSource dataSource = load("datagen4", 7);
+
+        // act
+        long inFirstTwo = count(dataSource, "SELECT COUNT(*) FROM products WHERE category_id <= 2");
+
+        // assert
+        // the first 10% of the categories should hold around 46% of the products
+        assertTrue(inFirstTwo > 700 && inFirstTwo < 1100, "products in the first two categories: " + inFirstTwo);
+    }
+
+    @Test
+    public void tsvSink_shouldWriteFilesAndALoadScript(@TempDir Path dir) throws Exception
+    {
+        // act
+        try (RowSink sink = new TsvRowSink(dir))
+        {
+            new DataGenerator(settings(7)).generate(sink);
+        }
+
+        // assert
+        assertEquals(2000, Files.readAllLines(dir.resolve("products.tsv")).size());
+        String script = Files.readString(dir.resolve("load.sql"));
+        assertTrue(script.contains("TRUNCATE TABLE order_line_items;"));
+        assertTrue(script.indexOf("products.tsv") < script.indexOf("order_line_items.tsv"));
+    }
+
+    @Test
+    public void append_shouldEscape_theLoadDataSpecialCharacters()
+    {
+        StringBuilder line = new StringBuilder();
+
+        TsvRowSink.append(line, "a\tb\\c\nd");
+        line.append('|');
+        TsvRowSink.append(line, null);
+        line.append('|');
+        TsvRowSink.append(line, true);
+
+        assertEquals("a\\tb\\\\c\\nd|\\N|1", line.toString());
+    }
+
+    @Test
+    public void price_shouldEndIn99_aboveTenDollars()
+    {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 1000; i++)
+        {
+            int cents = DataGenerator.price(random, 200);
+            assertTrue(cents >= 99);
+            if (cents >= 1000)
+                assertEquals(99, cents % 100);
+        }
+    }
+
+    private static GeneratorSettings settings(long seed)
+    {
+        return new GeneratorSettings(seed, 20, 50, 2000, 300, 100, 400, 64, null, null, null, null);
+    }
+
+    private static DataSource load(String database, long seed) throws Exception
+    {
+        DataSource dataSource = H2Database.create(database);
+        try (RowSink sink = new JdbcRowSink(dataSource.getConnection(), 64))
+        {
+            new DataGenerator(settings(seed)).generate(sink);
+        }
+        return dataSource;
+    }
+
+    private static List<String> generate(String database, long seed) throws Exception
+    {
+        DataSource dataSource = load(database, seed);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet row = statement.executeQuery(FINGERPRINT))
+        {
+            row.next();
+            String[] values = new String[row.getMetaData().getColumnCount()];
+            for (int i = 0; i < values.length; i++)
+            {
+                values[i] = row.getString(i + 1);
+            }
+            return List.of(values);
+        }
+    }
+
+    private static long count(DataSource dataSource, String sql) throws SQLException
+    {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet row = statement.executeQuery(sql))
+        {
+            row.next();
+            return row.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.yearup.datagen;
+
+import java.nio.file.Path;
+
+/**
+ * Data generator settings, read from datagen.* system properties. The database is the one
+ * the application uses (datasource.url, datasource.username, datasource.password).
+ * @param seed the random seed; the same seed and sizes always produce the same rows
+ * @param categories the number of categories
+ * @param subcategories the number of distinct subcategory names
+ * @param products the number of products
+ * @param users the number of users, each with a profile
+ * @param cartUsers roughly how many users have something in their cart
+ * @param orders the number of historical orders
+ * @param batchRows the number of rows per multi-row INSERT
+ * @param outDir write tab-separated files and a LOAD DATA script here instead of inserting,
+ *               or null to insert over JDBC
+ * @param url the JDBC url
+ * @param username the database user
+ * @param password the database password
+ */
+record GeneratorSettings(long seed,
+                         int categories,
+                         int subcategories,
+                         int products,
+                         int users,
+                         int cartUsers,
+                         int orders,
+                         int batchRows,
+                         Path outDir,
+                         String url,
+                         String username,
+                         String password)
+{
+    static GeneratorSettings fromSystemProperties()
+    {
+        String outDir = System.getProperty("datagen.out-dir", "");
+        return new GeneratorSettings(
+                Long.getLong("datagen.seed", 42),
+                Integer.getInteger("datagen.categories", 300),
+                Integer.getInteger("datagen.subcategories", 500),
+                Integer.getInteger("datagen.products", 2_000_000),
+                Integer.getInteger("datagen.users", 200_000),
+                Integer.getInteger("datagen.cart-users", 50_000),
+                Integer.getInteger("datagen.orders", 500_000),
+                Integer.getInteger("datagen.batch-rows", 1000),
+                outDir.isBlank() ? null : Path.of(outDir),
+                System.getProperty("datasource.url"),
+                System.getProperty("datasource.username"),
+                System.getProperty("datasource.password"));
+    }
+}
@@ -0,0 +1,111 @@
+package org.yearup.datagen;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Inserts rows with multi-row INSERT statements of batchRows rows each, committing after
+ * every statement so neither the client nor the server holds more than one batch.
+ */
+final class JdbcRowSink implements RowSink
+{
+    private final Connection connection;
+    private final int batchRows;
+
+    /**
+     * @param connection the connection to insert on; auto-commit is turned off
+     * @param batchRows the number of rows per INSERT
+     */
+    JdbcRowSink(Connection connection, int batchRows) throws SQLException
+    {
+        this.connection = connection;
+        this.batchRows = batchRows;
+        connection.setAutoCommit(false);
+    }
+
+    @Override
+    public void clear(List<String> tables) throws SQLException
+    {
+        try (Statement statement = connection.createStatement())
+        {
+            for (String table : tables)
+            {
+                statement.executeUpdate("DELETE FROM " + table);
+                connection.commit();
+            }
+        }
+    }
+
+    @Override
+    public TableWriter table(String name, String... columns) throws SQLException
+    {
+        return new Writer(name, columns);
+    }
+
+    @Override
+    public void close() throws SQLException
+    {
+        connection.close();
+    }
+
+    private final class Writer implements TableWriter
+    {
+        private final String insert;
+        private final int columns;
+        private final Object[] buffer;
+        private final PreparedStatement fullBatch;
+        private int buffered;
+
+        Writer(String table, String[] columns) throws SQLException
+        {
+            this.insert = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ";
+            this.columns = columns.length;
+            this.buffer = new Object[batchRows * columns.length];
+            this.fullBatch = connection.prepareStatement(sql(batchRows));
+        }
+
+        @Override
+        public void row(Object... values) throws SQLException
+        {
+            System.arraycopy(values, 0, buffer, buffered * columns, columns);
+            if (++buffered == batchRows)
+                flush(fullBatch);
+        }
+
+        @Override
+        public void close() throws SQLException
+        {
+            try (fullBatch)
+            {
+                if (buffered > 0)
+                {
+                    try (PreparedStatement remainder = connection.prepareStatement(sql(buffered)))
+                    {
+                        flush(remainder);
+                    }
+                }
+            }
+        }
+
+        private void flush(PreparedStatement statement) throws SQLException
+        {
+            for (int i = 0; i < buffered * columns; i++)
+            {
+                statement.setObject(i + 1, buffer[i]);
+            }
+            statement.executeUpdate();
+            connection.commit();
+            buffered = 0;
+        }
+
+        private String sql(int rows)
+        {
+            String row = "(" + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+            return insert + String.join(", ", Collections.nCopies(rows, row));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.yearup.datagen;
+
+import java.util.List;
+
+/**
+ * Where generated rows go: straight into the database or into files for bulk loading.
+ */
+interface RowSink extends AutoCloseable
+{
+    /**
+     * Removes the existing rows.
+     * @param tables the tables to empty, children before parents
+     */
+    void clear(List<String> tables) throws Exception;
+
+    /**
+     * Opens a table for writing. Only one table is written at a time.
+     * @param name the table
+     * @param columns the columns every row supplies, in order
+     * @return a writer for the table's rows
+     */
+    TableWriter table(String name, String... columns) throws Exception;
+
+    interface TableWriter extends AutoCloseable
+    {
+        /**
+         * @param values one value per column: Integer, String, BigDecimal, Boolean,
+         *               LocalDateTime or null
+         */
+        void row(Object... values) throws Exception;
+
+        /**
+         * Writes whatever is still buffered.
+         */
+        @Override
+        void close() throws Exception;
+    }
+}
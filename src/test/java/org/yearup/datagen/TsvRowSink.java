@@ -0,0 +1,118 @@
+package org.yearup.datagen;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes one tab-separated file per table in the format LOAD DATA reads by default, plus a
+ * load.sql script that empties the tables and loads the files in order:
+ * <pre>
+ * mysql --local-infile=1 easyshop &lt; load.sql
+ * </pre>
+ * The server needs local_infile enabled.
+ */
+final class TsvRowSink implements RowSink
+{
+    private static final DateTimeFormatter DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Path dir;
+    private final BufferedWriter script;
+
+    TsvRowSink(Path dir) throws IOException
+    {
+        this.dir = Files.createDirectories(dir).toAbsolutePath();
+        this.script = Files.newBufferedWriter(this.dir.resolve("load.sql"));
+        script.write("SET FOREIGN_KEY_CHECKS = 0;\n");
+    }
+
+    @Override
+    public void clear(List<String> tables) throws IOException
+    {
+        for (String table : tables)
+        {
+            script.write("TRUNCATE TABLE " + table + ";\n");
+        }
+    }
+
+    @Override
+    public TableWriter table(String name, String... columns) throws IOException
+    {
+        Path file = dir.resolve(name + ".tsv");
+        script.write("LOAD DATA LOCAL INFILE '" + file.toString().replace("\\", "/") + "' INTO TABLE " + name
+                + " (" + String.join(", ", columns) + ");\n");
+
+        BufferedWriter out = Files.newBufferedWriter(file);
+        return new TableWriter()
+        {
+            private final StringBuilder line = new StringBuilder();
+
+            @Override
+            public void row(Object... values) throws IOException
+            {
+                line.setLength(0);
+                for (int i = 0; i < values.length; i++)
+                {
+                    if (i > 0)
+                        line.append('\t');
+                    append(line, values[i]);
+                }
+                line.append('\n');
+                out.append(line);
+            }
+
+            @Override
+            public void close() throws IOException
+            {
+                out.close();
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try (script)
+        {
+            script.write("SET FOREIGN_KEY_CHECKS = 1;\n");
+        }
+    }
+
+    static void append(StringBuilder line, Object value)
+    {
+        if (value == null)
+        {
+            line.append("\\N");
+        }
+        else if (value instanceof Boolean b)
+        {
+            line.append(b ? '1' : '0');
+        }
+        else if (value instanceof LocalDateTime dateTime)
+        {
+            DATETIME.formatTo(dateTime, line);
+        }
+        else if (value instanceof String s)
+        {
+            for (int i = 0; i < s.length(); i++)
+            {
+                char c = s.charAt(i);
+                switch (c)
+                {
+                    case '\\' -> line.append("\\\\");
+                    case '\t' -> line.append("\\t");
+                    case '\n' -> line.append("\\n");
+                    default -> line.append(c);
+                }
+            }
+        }
+        else
+        {
+            line.append(value);
+        }
+    }
+}
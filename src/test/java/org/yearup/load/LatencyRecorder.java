@@ -0,0 +1,72 @@
+package org.yearup.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms. Each request records two times: the response time,
+ * measured from when the virtual user meant to send the request, and the service time,
+ * measured from when it actually did. They only differ when the server fell behind.
+ */
+final class LatencyRecorder
+{
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+
+    static final class Endpoint
+    {
+        final Histogram responseTime = new ConcurrentHistogram(MAX_MICROS, 3);
+        final Histogram serviceTime = new ConcurrentHistogram(MAX_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+    }
+
+    void start()
+    {
+        recording = true;
+    }
+
+    void stop()
+    {
+        recording = false;
+    }
+
+    /**
+     * @param endpoint the method and path template, e.g. "GET /products/{id}"
+     * @param intendedStart when the request should have been sent, in System.nanoTime
+     * @param start when it was sent
+     * @param end when the response arrived
+     * @param ok whether the response status was the expected one
+     */
+    void record(String endpoint, long intendedStart, long start, long end, boolean ok)
+    {
+        if (!recording)
+            return;
+
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, e -> new Endpoint());
+        stats.responseTime.recordValue(Math.min(micros(end - intendedStart), MAX_MICROS));
+        stats.serviceTime.recordValue(Math.min(micros(end - start), MAX_MICROS));
+        if (!ok)
+            stats.errors.increment();
+    }
+
+    /**
+     * @return the endpoints recorded so far, by name
+     */
+    Map<String, Endpoint> endpoints()
+    {
+        return new TreeMap<>(endpoints);
+    }
+
+    private static long micros(long nanos)
+    {
+        return Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0);
+    }
+}
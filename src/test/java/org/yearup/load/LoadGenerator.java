@@ -0,0 +1,259 @@
+package org.yearup.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.yearup.EasyshopApplication;
+import org.yearup.configuration.TestDatabaseConfig;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop HTTP load generator. Drives a weighted mix of browse, add-to-cart and checkout
+ * sessions (see {@link Scenario}) from load.users virtual users and writes throughput and
+ * p50/p99/p99.9 latency per endpoint to a JSON report that can be diffed across builds.
+ * <p>
+ * Without load.base-url the application is started in-process on a random port; point it
+ * at a local database with the usual properties, e.g.
+ * <pre>
+ * mvn -Pload test -Ddatasource.url=jdbc:mysql://localhost:3306/easyshop -Ddatasource.username=root \
+ *     -Ddatasource.password=... -Djwt.secret=... -Djwt.token-timeout-seconds=86400 -Dload.users=50
+ * </pre>
+ * Each virtual user gets its own account (loaduser-N), registered and given a shipping
+ * address before the run if it doesn't exist yet.
+ */
+public final class LoadGenerator
+{
+    /**
+     * The application as EasyshopApplication configures it, minus the test configuration
+     * that is also on the test classpath.
+     */
+    @Configuration
+    @EnableAutoConfiguration
+    @ComponentScan(basePackageClasses = EasyshopApplication.class, excludeFilters = @ComponentScan.Filter(
+            type = FilterType.ASSIGNABLE_TYPE, classes = {EasyshopApplication.class, TestDatabaseConfig.class}))
+    static class Application
+    {
+    }
+
+    private final LoadSettings settings;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private LoadGenerator(LoadSettings settings)
+    {
+        this.settings = settings;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        LoadSettings settings = LoadSettings.fromSystemProperties();
+
+        ConfigurableApplicationContext application = null;
+        String baseUrl = settings.baseUrl();
+        if (baseUrl == null)
+        {
+            System.setProperty("spring.devtools.restart.enabled", "false");
+            application = new SpringApplicationBuilder(Application.class)
+                    .properties("server.port=0")
+                    .run(args);
+            int port = ((ServletWebServerApplicationContext) application).getWebServer().getPort();
+            baseUrl = "http://localhost:" + port;
+        }
+
+        try
+        {
+            new LoadGenerator(settings).run(URI.create(baseUrl));
+        }
+        finally
+        {
+            if (application != null)
+                application.close();
+        }
+        System.exit(0);
+    }
+
+    private void run(URI baseUri) throws Exception
+    {
+        List<Integer> productIds = ids(baseUri, "/products", "productId");
+        List<Integer> categoryIds = ids(baseUri, "/categories", "categoryId");
+        if (productIds.isEmpty() || categoryIds.isEmpty())
+            throw new IllegalStateException("The catalog is empty; seed the database first.");
+
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        mix.put(Scenario.BROWSE, settings.browseWeight());
+        mix.put(Scenario.ADD_TO_CART, settings.addToCartWeight());
+        mix.put(Scenario.CHECKOUT, settings.checkoutWeight());
+
+        System.out.printf("Preparing %d accounts...%n", settings.users());
+        for (int i = 0; i < settings.users(); i++)
+        {
+            createAccount(baseUri, username(i));
+        }
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        long stopAt = System.nanoTime() + settings.warmup().plus(settings.duration()).toNanos();
+        ExecutorService users = Executors.newFixedThreadPool(settings.users());
+        for (int i = 0; i < settings.users(); i++)
+        {
+            users.execute(new VirtualUser(client, objectMapper, baseUri, username(i), settings.password(),
+                    productIds, categoryIds, mix, recorder, settings.pacing(), stopAt, i));
+        }
+
+        System.out.printf("Warming up for %s with %d users...%n", settings.warmup(), settings.users());
+        Thread.sleep(settings.warmup().toMillis());
+        recorder.start();
+        Instant started = Instant.now();
+        System.out.printf("Recording for %s...%n", settings.duration());
+
+        users.shutdown();
+        users.awaitTermination(settings.duration().toMillis() + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+        recorder.stop();
+        users.shutdownNow();
+
+        writeReport(recorder, Duration.between(started, Instant.now()));
+    }
+
+    private static String username(int user)
+    {
+        return "loaduser-" + user;
+    }
+
+    private List<Integer> ids(URI baseUri, String path, String field) throws IOException, InterruptedException
+    {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(baseUri.resolve(path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200)
+            throw new IllegalStateException("GET " + path + " returned " + response.statusCode() + ": " + response.body());
+
+        List<Integer> ids = new ArrayList<>();
+        for (JsonNode item : objectMapper.readTree(response.body()))
+        {
+            ids.add(item.get(field).asInt());
+        }
+        return ids;
+    }
+
+    /**
+     * Registers the account if it's new and gives it a shipping address, so checkouts can succeed.
+     */
+    private void createAccount(URI baseUri, String username) throws IOException, InterruptedException
+    {
+        String password = settings.password();
+        post(baseUri.resolve("/register"), Map.of(
+                "username", username, "password", password, "confirmPassword", password, "role", "USER"));
+
+        HttpResponse<String> login = post(baseUri.resolve("/login"), Map.of("username", username, "password", password));
+        if (login.statusCode() != 200)
+            throw new IllegalStateException("Can't log in as " + username + ": " + login.statusCode());
+        String token = objectMapper.readTree(login.body()).get("token").asText();
+
+        Map<String, Object> profile = new LinkedHashMap<>();
+        profile.put("firstName", "Load");
+        profile.put("lastName", username);
+        profile.put("phone", "800-555-0100");
+        profile.put("email", username + "@example.com");
+        profile.put("address", "1 Load Street");
+        profile.put("city", "Dallas");
+        profile.put("state", "TX");
+        profile.put("zip", "75001");
+        client.send(HttpRequest.newBuilder(baseUri.resolve("/profile"))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(profile)))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+    }
+
+    private HttpResponse<String> post(URI uri, Object body) throws IOException, InterruptedException
+    {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void writeReport(LatencyRecorder recorder, Duration elapsed) throws IOException
+    {
+        double seconds = elapsed.toMillis() / 1000.0;
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        System.out.printf("%n%-32s %10s %8s %10s %10s %10s %10s%n", "endpoint", "req/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, LatencyRecorder.Endpoint> entry : recorder.endpoints().entrySet())
+        {
+            LatencyRecorder.Endpoint stats = entry.getValue();
+            Histogram responseTime = stats.responseTime;
+
+            Map<String, Object> endpoint = new LinkedHashMap<>();
+            endpoint.put("requests", responseTime.getTotalCount());
+            endpoint.put("errors", stats.errors.sum());
+            endpoint.put("throughputPerSecond", responseTime.getTotalCount() / seconds);
+            endpoint.put("responseTimeMs", percentiles(responseTime));
+            endpoint.put("serviceTimeMs", percentiles(stats.serviceTime));
+            endpoints.put(entry.getKey(), endpoint);
+
+            System.out.printf("%-32s %10.1f %8d %10.2f %10.2f %10.2f %10.2f%n", entry.getKey(),
+                    responseTime.getTotalCount() / seconds, stats.errors.sum(),
+                    millis(responseTime.getValueAtPercentile(50)), millis(responseTime.getValueAtPercentile(99)),
+                    millis(responseTime.getValueAtPercentile(99.9)), millis(responseTime.getMaxValue()));
+        }
+
+        Map<String, Object> settingsReport = new LinkedHashMap<>();
+        settingsReport.put("users", settings.users());
+        settingsReport.put("pacingMs", settings.pacing().toMillis());
+        settingsReport.put("mix", Map.of("browse", settings.browseWeight(),
+                "addToCart", settings.addToCartWeight(), "checkout", settings.checkoutWeight()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("started", Instant.now().minus(elapsed).toString());
+        report.put("durationSeconds", seconds);
+        report.put("settings", settingsReport);
+        report.put("endpoints", endpoints);
+
+        Files.createDirectories(settings.report().toAbsolutePath().getParent());
+        objectMapper.writeValue(settings.report().toFile(), report);
+        System.out.printf("%nLatency is measured from each request's scheduled send time. Report: %s%n", settings.report());
+    }
+
+    private static Map<String, Object> percentiles(Histogram histogram)
+    {
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        percentiles.put("p50", millis(histogram.getValueAtPercentile(50)));
+        percentiles.put("p99", millis(histogram.getValueAtPercentile(99)));
+        percentiles.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+        percentiles.put("max", millis(histogram.getMaxValue()));
+        return percentiles;
+    }
+
+    private static double millis(long micros)
+    {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,47 @@
+package org.yearup.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Load generator settings, read from load.* system properties.
+ * @param baseUrl the server to drive, or null to boot the application in-process
+ * @param users the number of virtual users
+ * @param warmup how long to run before recording
+ * @param duration how long to record
+ * @param pacing the interval at which each virtual user means to send requests; latency is
+ *               measured from the intended send time, so a stalled server is charged for the
+ *               requests it kept users from sending (coordinated omission)
+ * @param browseWeight relative weight of browse sessions
+ * @param addToCartWeight relative weight of add-to-cart sessions
+ * @param checkoutWeight relative weight of checkout sessions
+ * @param password the password for the virtual users' accounts
+ * @param report where to write the JSON report
+ */
+record LoadSettings(String baseUrl,
+                    int users,
+                    Duration warmup,
+                    Duration duration,
+                    Duration pacing,
+                    int browseWeight,
+                    int addToCartWeight,
+                    int checkoutWeight,
+                    String password,
+                    Path report)
+{
+    static LoadSettings fromSystemProperties()
+    {
+        String baseUrl = System.getProperty("load.base-url", "");
+        return new LoadSettings(
+                baseUrl.isBlank() ? null : baseUrl,
+                Integer.getInteger("load.users", 20),
+                Duration.ofSeconds(Long.getLong("load.warmup-seconds", 10)),
+                Duration.ofSeconds(Long.getLong("load.duration-seconds", 60)),
+                Duration.ofMillis(Long.getLong("load.pacing-ms", 200)),
+                Integer.getInteger("load.mix.browse", 70),
+                Integer.getInteger("load.mix.add-to-cart", 20),
+                Integer.getInteger("load.mix.checkout", 10),
+                System.getProperty("load.password", "password"),
+                Path.of(System.getProperty("load.report", "target/load-report.json")));
+    }
+}
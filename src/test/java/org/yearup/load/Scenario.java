@@ -0,0 +1,50 @@
+package org.yearup.load;
+
+/**
+ * The shopper sessions in the load mix.
+ */
+enum Scenario
+{
+    /** Anonymous catalog browsing: categories, a category's products, a search, two product pages. */
+    BROWSE
+    {
+        @Override
+        void run(VirtualUser user)
+        {
+            int categoryId = user.anyCategory();
+            user.get("GET /categories", "/categories");
+            user.get("GET /categories/{id}/products", "/categories/" + categoryId + "/products");
+            user.get("GET /products", "/products?cat=" + categoryId + "&maxPrice=500");
+            user.get("GET /products/{id}", "/products/" + user.anyProduct());
+            user.get("GET /products/{id}", "/products/" + user.anyProduct());
+        }
+    },
+
+    /** Looks at a product and puts it in the cart. */
+    ADD_TO_CART
+    {
+        @Override
+        void run(VirtualUser user)
+        {
+            int productId = user.anyProduct();
+            user.get("GET /products/{id}", "/products/" + productId);
+            user.post("POST /cart/products/{id}", "/cart/products/" + productId);
+            user.getOwn("GET /cart", "/cart");
+        }
+    },
+
+    /** Adds two products, checks the shipping profile and places the order. */
+    CHECKOUT
+    {
+        @Override
+        void run(VirtualUser user)
+        {
+            user.post("POST /cart/products/{id}", "/cart/products/" + user.anyProduct());
+            user.post("POST /cart/products/{id}", "/cart/products/" + user.anyProduct());
+            user.getOwn("GET /profile", "/profile");
+            user.post("POST /orders", "/orders");
+        }
+    };
+
+    abstract void run(VirtualUser user);
+}
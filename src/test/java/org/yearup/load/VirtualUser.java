@@ -0,0 +1,205 @@
+package org.yearup.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One shopper with its own account. Requests are sent on a fixed schedule (one per pacing
+ * interval); a virtual user that falls behind sends its next request immediately but is
+ * still timed from the scheduled send time. The JWT from the first login is reused for
+ * every later session and only refreshed when the server rejects it.
+ */
+final class VirtualUser implements Runnable
+{
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final URI baseUri;
+    private final String username;
+    private final String password;
+    private final List<Integer> productIds;
+    private final List<Integer> categoryIds;
+    private final Map<Scenario, Integer> mix;
+    private final LatencyRecorder recorder;
+    private final long pacingNanos;
+    private final long stopAt;
+    private final Random random;
+
+    private long nextIntendedStart;
+    private String token;
+
+    VirtualUser(HttpClient client, ObjectMapper objectMapper, URI baseUri, String username, String password,
+                List<Integer> productIds, List<Integer> categoryIds, Map<Scenario, Integer> mix,
+                LatencyRecorder recorder, Duration pacing, long stopAt, long seed)
+    {
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.baseUri = baseUri;
+        this.username = username;
+        this.password = password;
+        this.productIds = productIds;
+        this.categoryIds = categoryIds;
+        this.mix = mix;
+        this.recorder = recorder;
+        this.pacingNanos = pacing.toNanos();
+        this.stopAt = stopAt;
+        this.random = new Random(seed);
+        // spread the users over the first interval so they don't fire in lockstep
+        this.nextIntendedStart = System.nanoTime() + (long) (random.nextDouble() * pacingNanos);
+    }
+
+    @Override
+    public void run()
+    {
+        while (System.nanoTime() < stopAt && !Thread.currentThread().isInterrupted())
+        {
+            try
+            {
+                nextScenario().run(this);
+            }
+            catch (LoadException e)
+            {
+                // already counted as an error; start a new session
+            }
+        }
+    }
+
+    int anyProduct()
+    {
+        return productIds.get(random.nextInt(productIds.size()));
+    }
+
+    int anyCategory()
+    {
+        return categoryIds.get(random.nextInt(categoryIds.size()));
+    }
+
+    void get(String endpoint, String path)
+    {
+        send(endpoint, HttpRequest.newBuilder(baseUri.resolve(path)).GET(), 200, false);
+    }
+
+    void getOwn(String endpoint, String path)
+    {
+        send(endpoint, HttpRequest.newBuilder(baseUri.resolve(path)).GET(), 200, true);
+    }
+
+    void post(String endpoint, String path)
+    {
+        send(endpoint, HttpRequest.newBuilder(baseUri.resolve(path)).POST(HttpRequest.BodyPublishers.noBody()), -1, true);
+    }
+
+    /**
+     * Logs in, unless this user already holds a token.
+     */
+    void login()
+    {
+        if (token != null)
+            return;
+
+        String body = json(Map.of("username", username, "password", password));
+        HttpResponse<String> response = send("POST /login", HttpRequest.newBuilder(baseUri.resolve("/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)), 200, false);
+        try
+        {
+            JsonNode login = objectMapper.readTree(response.body());
+            token = login.get("token").asText();
+        }
+        catch (IOException e)
+        {
+            throw new LoadException("Unreadable login response for " + username);
+        }
+    }
+
+    private Scenario nextScenario()
+    {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = random.nextInt(total);
+        for (Map.Entry<Scenario, Integer> weight : mix.entrySet())
+        {
+            pick -= weight.getValue();
+            if (pick < 0)
+                return weight.getKey();
+        }
+        return Scenario.BROWSE;
+    }
+
+    /**
+     * @param expectedStatus the status that counts as success, or -1 for any 2xx
+     * @param authenticated whether the request needs the user's token
+     */
+    private HttpResponse<String> send(String endpoint, HttpRequest.Builder request, int expectedStatus, boolean authenticated)
+    {
+        if (authenticated)
+        {
+            login();
+            request.header("Authorization", "Bearer " + token);
+        }
+        request.timeout(TIMEOUT);
+
+        long intendedStart = nextIntendedStart;
+        nextIntendedStart += pacingNanos;
+        long wait = intendedStart - System.nanoTime();
+        if (wait > 0)
+            LockSupport.parkNanos(wait);
+
+        long start = System.nanoTime();
+        HttpResponse<String> response = null;
+        try
+        {
+            response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        }
+        catch (IOException e)
+        {
+            // recorded as an error below
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        long end = System.nanoTime();
+
+        int status = response == null ? 0 : response.statusCode();
+        boolean ok = expectedStatus == -1 ? status / 100 == 2 : status == expectedStatus;
+        recorder.record(endpoint, intendedStart, start, end, ok);
+
+        if (status == 401 || status == 403)
+            token = null;
+        if (!ok)
+            throw new LoadException(endpoint + " returned " + status);
+        return response;
+    }
+
+    private String json(Object value)
+    {
+        try
+        {
+            return objectMapper.writeValueAsString(value);
+        }
+        catch (IOException e)
+        {
+            throw new LoadException(e.getMessage());
+        }
+    }
+
+    static final class LoadException extends RuntimeException
+    {
+        LoadException(String message)
+        {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.yearup.models;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of product lists, as the product search endpoint writes them.
+ * The mapper is built the way Spring Boot builds the one MVC uses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductJsonBenchmark
+{
+    @Param({"1", "100"})
+    public int products;
+
+    private ObjectMapper objectMapper;
+    private List<Product> list;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        list = new ArrayList<>();
+        for (int i = 1; i <= products; i++)
+        {
+            list.add(new Product(i, "Product " + i, new BigDecimal("19.99"), 1,
+                    "A product that is good at what it does.", "Black", 10, i % 5 == 0, "product-" + i + ".jpg"));
+        }
+    }
+
+    @Benchmark
+    public byte[] writeProducts() throws JsonProcessingException
+    {
+        return objectMapper.writeValueAsBytes(list);
+    }
+}
@@ -0,0 +1,51 @@
+package org.yearup.models;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart and line totals, which are recomputed every time a cart is serialized.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShoppingCartBenchmark
+{
+    @Param({"1", "20"})
+    public int items;
+
+    private ShoppingCart cart;
+    private ShoppingCartItem item;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        cart = new ShoppingCart();
+        for (int i = 1; i <= items; i++)
+        {
+            ShoppingCartItem cartItem = new ShoppingCartItem();
+            cartItem.setProduct(new Product(i, "Product " + i, new BigDecimal("19.99"), 1, "", "Black", 10, false, ""));
+            cartItem.setQuantity(i % 3 + 1);
+            cartItem.setDiscountPercent(i % 2 == 0 ? new BigDecimal("0.10") : BigDecimal.ZERO);
+            cart.add(cartItem);
+        }
+        item = cart.get(1);
+    }
+
+    @Benchmark
+    public BigDecimal getTotal()
+    {
+        return cart.getTotal();
+    }
+
+    @Benchmark
+    public BigDecimal getLineTotal()
+    {
+        return item.getLineTotal();
+    }
+}
@@ -0,0 +1,71 @@
+package org.yearup.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BoundedPasswordEncoderTest
+{
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    public void shutdown()
+    {
+        encoder.destroy();
+    }
+
+    @Test
+    public void encode_shouldHashAndVerify_onThePool()
+    {
+        // arrange
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 4, 5000, meterRegistry);
+
+        // act
+        String hash = encoder.encode("password");
+
+        // assert
+        assertTrue(encoder.matches("password", hash));
+        assertEquals(1, meterRegistry.get("security.password.hash").tag("operation", "encode").timer().count());
+        assertEquals(1, meterRegistry.get("security.password.hash").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    public void encode_shouldFailFast_whenThePoolIsSaturated() throws Exception
+    {
+        // arrange
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = mock(PasswordEncoder.class);
+        when(slow.encode(any())).thenAnswer(invocation -> { release.await(); return "hash"; });
+        encoder = new BoundedPasswordEncoder(slow, 1, 1, 5000, meterRegistry);
+
+        var running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        var queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (meterRegistry.get("security.password.queue.depth").gauge().value() < 1)
+        {
+            Thread.sleep(5);
+        }
+
+        // act
+        var rejected = assertThrows(ResponseStatusException.class, () -> encoder.encode("c"));
+
+        // assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatus());
+        release.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,70 @@
+package org.yearup.security.jwt;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.yearup.security.AuthenticatedUser;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JWT filter on an authenticated request whose token is already in the verified token
+ * cache (the steady state), and on an anonymous request with no Authorization header.
+ * The rest of the chain is a no-op; each call starts from an empty security context.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTFilterBenchmark
+{
+    private final FilterChain chain = (request, response) -> { };
+
+    private JWTFilter filter;
+    private MockHttpServletRequest authenticated;
+    private MockHttpServletRequest anonymous;
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        TokenProvider tokenProvider = new TokenProvider(TokenProviderTest.SECRET, 3600);
+        tokenProvider.afterPropertiesSet();
+        filter = new JWTFilter(tokenProvider, new VerifiedTokenCache(100));
+
+        var authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        var user = new AuthenticatedUser(1, "user", "", authorities);
+        String token = tokenProvider.createToken(new UsernamePasswordAuthenticationToken(user, "", authorities), false);
+
+        authenticated = new MockHttpServletRequest("GET", "/cart");
+        authenticated.addHeader(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + token);
+        anonymous = new MockHttpServletRequest("GET", "/products");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Authentication authenticatedRequest() throws ServletException, IOException
+    {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(authenticated, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Authentication anonymousRequest() throws ServletException, IOException
+    {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(anonymous, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,80 @@
+package org.yearup.security.jwt;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.yearup.security.AuthenticatedUser;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JWTFilterTest
+{
+    private TokenProvider tokenProvider;
+    private VerifiedTokenCache verifiedTokenCache;
+    private JWTFilter filter;
+    private String token;
+
+    @BeforeEach
+    public void setup()
+    {
+        TokenProvider real = new TokenProvider(TokenProviderTest.SECRET, 3600);
+        real.afterPropertiesSet();
+        tokenProvider = spy(real);
+        verifiedTokenCache = new VerifiedTokenCache(100);
+        filter = new JWTFilter(tokenProvider, verifiedTokenCache);
+
+        var authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        var user = new AuthenticatedUser(1, "user", "", authorities);
+        token = real.createToken(new UsernamePasswordAuthenticationToken(user, "", authorities), false);
+    }
+
+    @AfterEach
+    public void clearContext()
+    {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void doFilter_shouldVerifyEachToken_onlyOnce() throws Exception
+    {
+        // act
+        for (int i = 0; i < 3; i++)
+        {
+            SecurityContextHolder.clearContext();
+            filter.doFilter(request("Bearer " + token), new MockHttpServletResponse(), new MockFilterChain());
+        }
+
+        // assert
+        verify(tokenProvider, times(1)).parseClaims(anyString());
+        assertEquals("user", SecurityContextHolder.getContext().getAuthentication().getName());
+        assertEquals(2, verifiedTokenCache.getStats().hitCount());
+    }
+
+    @Test
+    public void doFilter_shouldNotAuthenticate_aTamperedToken() throws Exception
+    {
+        // act
+        filter.doFilter(request("Bearer " + token + "x"), new MockHttpServletResponse(), new MockFilterChain());
+
+        // assert
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private static MockHttpServletRequest request(String authorization)
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/cart");
+        request.addHeader(JWTFilter.AUTHORIZATION_HEADER, authorization);
+        return request;
+    }
+}
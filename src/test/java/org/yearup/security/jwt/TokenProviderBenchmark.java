@@ -0,0 +1,56 @@
+package org.yearup.security.jwt;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.yearup.security.AuthenticatedUser;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token signing, verification and parsing, each of which runs an HS512 HMAC.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenProviderBenchmark
+{
+    private TokenProvider tokenProvider;
+    private Authentication login;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        tokenProvider = new TokenProvider(TokenProviderTest.SECRET, 3600);
+        tokenProvider.afterPropertiesSet();
+
+        var authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        var user = new AuthenticatedUser(1, "user", "", authorities);
+        login = new UsernamePasswordAuthenticationToken(user, "", authorities);
+        token = tokenProvider.createToken(login, false);
+    }
+
+    @Benchmark
+    public String createToken()
+    {
+        return tokenProvider.createToken(login, false);
+    }
+
+    @Benchmark
+    public boolean validateToken()
+    {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public Authentication getAuthentication()
+    {
+        return tokenProvider.getAuthentication(token);
+    }
+}
@@ -0,0 +1,67 @@
+package org.yearup.security.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.yearup.security.AuthenticatedUser;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenProviderTest
+{
+    static final String SECRET = "bXktdGVzdC1zZWNyZXQtdGhhdC1pcy1sb25nLWVub3VnaC1mb3ItaHM1MTItc2lnbmluZy1rZXlzLTEyMzQ1Njc4OTA=";
+
+    private TokenProvider tokenProvider;
+
+    @BeforeEach
+    public void setup()
+    {
+        tokenProvider = new TokenProvider(SECRET, 3600);
+        tokenProvider.afterPropertiesSet();
+    }
+
+    @Test
+    public void getAuthentication_shouldCarry_theUserIdFromTheToken()
+    {
+        // arrange
+        var authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        var user = new AuthenticatedUser(7, "user", "", authorities);
+        String token = tokenProvider.createToken(new UsernamePasswordAuthenticationToken(user, "", authorities), false);
+
+        // act
+        var authentication = tokenProvider.getAuthentication(token);
+
+        // assert
+        assertTrue(tokenProvider.validateToken(token));
+        var principal = assertInstanceOf(AuthenticatedUser.class, authentication.getPrincipal());
+        assertEquals(7, principal.getUserId(), "Because the user id should come from the token, not the database.");
+        assertEquals("user", principal.getUsername());
+    }
+
+    @Test
+    public void getAuthentication_shouldRejectATokenWithoutAUserId()
+    {
+        // arrange: a correctly signed token from before the user id claim was added
+        String token = Jwts.builder()
+                .setSubject("user")
+                .claim("auth", "ROLE_USER")
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS512)
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .compact();
+
+        // act
+        var authentication = tokenProvider.getAuthentication(token);
+
+        // assert
+        assertNull(authentication);
+        assertFalse(tokenProvider.validateToken(token));
+    }
+}
@@ -0,0 +1,101 @@
+-- The easyshop schema in H2's MySQL mode, with a little seed data, for tests that need
+-- a real database but not a MySQL server. Indexes added by later migrations live in
+-- database/migrations; SchemaParityTest checks the two together against test-data.sql.
+
+CREATE TABLE users (
+    user_id INT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(50) NOT NULL,
+    hashed_password VARCHAR(255) NOT NULL,
+    role VARCHAR(50) NOT NULL,
+    PRIMARY KEY (user_id)
+);
+
+CREATE TABLE profiles (
+    user_id INT NOT NULL,
+    first_name VARCHAR(50) NOT NULL,
+    last_name VARCHAR(50) NOT NULL,
+    phone VARCHAR(20) NOT NULL,
+    email VARCHAR(200) NOT NULL,
+    address VARCHAR(200) NOT NULL,
+    city VARCHAR(50) NOT NULL,
+    state VARCHAR(50) NOT NULL,
+    zip VARCHAR(20) NOT NULL,
+    PRIMARY KEY (user_id),
+    FOREIGN KEY (user_id) REFERENCES users(user_id)
+);
+
+CREATE TABLE categories (
+    category_id INT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(100) NOT NULL,
+    description TEXT,
+    PRIMARY KEY (category_id)
+);
+
+CREATE TABLE products (
+    product_id INT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(100) NOT NULL,
+    price DECIMAL(10, 2) NOT NULL,
+    category_id INT NOT NULL,
+    description TEXT,
+    subcategory VARCHAR(20),
+    image_url VARCHAR(200),
+    stock INT NOT NULL DEFAULT 0,
+    featured BOOL NOT NULL DEFAULT 0,
+    PRIMARY KEY (product_id),
+    FOREIGN KEY (category_id) REFERENCES categories(category_id)
+);
+CREATE INDEX idx_products_category_price ON products (category_id, price);
+CREATE INDEX idx_products_subcategory_price ON products (subcategory, price);
+
+CREATE TABLE orders (
+    order_id INT NOT NULL AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    date DATETIME NOT NULL,
+    address VARCHAR(100) NOT NULL,
+    city VARCHAR(50) NOT NULL,
+    state VARCHAR(50) NOT NULL,
+    zip VARCHAR(20) NOT NULL,
+    shipping_amount DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (order_id),
+    FOREIGN KEY (user_id) REFERENCES users(user_id)
+);
+
+CREATE TABLE order_line_items (
+    order_line_item_id INT NOT NULL AUTO_INCREMENT,
+    order_id INT NOT NULL,
+    product_id INT NOT NULL,
+    sales_price DECIMAL(10, 2) NOT NULL,
+    quantity INT NOT NULL,
+    discount DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (order_line_item_id),
+    FOREIGN KEY (order_id) REFERENCES orders(order_id),
+    FOREIGN KEY (product_id) REFERENCES products(product_id)
+);
+
+CREATE TABLE shopping_cart (
+    user_id INT NOT NULL,
+    product_id INT NOT NULL,
+    quantity INT NOT NULL DEFAULT 1,
+    PRIMARY KEY (user_id, product_id),
+    FOREIGN KEY (user_id) REFERENCES users(user_id),
+    FOREIGN KEY (product_id) REFERENCES products(product_id)
+);
+
+INSERT INTO users (username, hashed_password, role)
+VALUES ('user', '$2a$10$NkufUPF3V8dEPSZeo1fzHe9ScBu.LOay9S3N32M84yuUM2OJYEJ/.', 'ROLE_USER'),
+       ('admin', '$2a$10$lfQi9jSfhZZhfS6/Kyzv3u3418IgnWXWDQDk7IbcwlCFPgxg9Iud2', 'ROLE_ADMIN');
+
+INSERT INTO profiles (user_id, first_name, last_name, phone, email, address, city, state, zip)
+VALUES (1, 'Joe', 'Joesephus', '800-555-1234', 'joejoesephus@email.com', '789 Oak Avenue', 'Dallas', 'TX', '75051'),
+       (2, 'Adam', 'Admamson', '800-555-1212', 'aaadamson@email.com', '456 Elm Street', 'Dallas', 'TX', '75052');
+
+INSERT INTO categories (name, description)
+VALUES ('Electronics', 'Explore the latest gadgets and electronic devices.'),
+       ('Fashion', 'Discover trendy clothing and accessories for men and women.');
+
+INSERT INTO products (name, price, category_id, description, subcategory, image_url, stock, featured)
+VALUES ('Smartphone', 499.99, 1, 'A powerful and feature-rich smartphone.', 'Black', 'smartphone.jpg', 50, 0),
+       ('Laptop', 899.99, 1, 'A high-performance laptop for work and entertainment.', 'Gray', 'laptop.jpg', 30, 0),
+       ('Headphones', 99.99, 1, 'Immerse yourself in music with these headphones.', 'White', 'headphones.jpg', 100, 1),
+       ('Men''s T-Shirt', 29.99, 2, 'A comfortable and stylish t-shirt for men.', 'Red', 'mens-tshirt.jpg', 100, 0),
+       ('Women''s Dress', 59.99, 2, 'A beautiful and elegant dress for women.', 'Blue', 'womens-dress.jpg', 30, 1);